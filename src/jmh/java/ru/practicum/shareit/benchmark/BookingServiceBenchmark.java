@@ -0,0 +1,52 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.status.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingServiceBenchmark {
+    private final LocalDateTime firstSlot = LocalDateTime.now().plusYears(1);
+    private final AtomicLong slot = new AtomicLong();
+
+    @Benchmark
+    public BookingPage getBookingsByOwner(ShareItState state, StatusState statusState) {
+        return state.bookingService.getBookingsByOwner(state.dataset.randomOwnerId(), statusState.status, null, 50);
+    }
+
+    /**
+     * Каждое бронирование занимает свой час, поэтому проверка пересечений всегда проходит.
+     */
+    @Benchmark
+    public BookingDto createBooking(ShareItState state) {
+        LocalDateTime start = firstSlot.plusHours(slot.getAndIncrement());
+        return state.bookingService.createBooking(state.dataset.bookerId,
+                new BookingCreateDto(start, start.plusMinutes(30), state.dataset.randomAvailableItemId()));
+    }
+
+    @State(Scope.Benchmark)
+    public static class StatusState {
+        @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+        public BookingStatus status;
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Наполняет пустую базу данными заданного объёма. Владельцами вещей являются первые 10%
+ * пользователей, бронируют и комментируют остальные.
+ */
+class Dataset {
+    static final String[] WORDS = {"drill", "saw", "ladder", "tent", "bike", "scooter", "projector", "guitar",
+        "camera", "kayak"};
+
+    private static final int BATCH_SIZE = 1_000;
+
+    final int users;
+    final int items;
+    final int owners;
+    final long bookerId;
+    private final int bookingsPerItem;
+    private final int commentsPerItem;
+    private long[] availableItemIds;
+
+    Dataset(int users, int items, int bookingsPerItem, int commentsPerItem) {
+        this.users = users;
+        this.items = items;
+        this.bookingsPerItem = bookingsPerItem;
+        this.commentsPerItem = commentsPerItem;
+        this.owners = Math.max(1, users / 10);
+        this.bookerId = users;
+    }
+
+    void seed(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        seedUsers(jdbc);
+        seedItems(jdbc);
+        seedBookingsAndComments(jdbc);
+
+        context.getBean(ItemSearchIndex.class).build();
+        context.getBean(BookingAvailabilityIndex.class).build();
+        context.getBean(ItemBookingSummaryService.class).rebuildAll();
+    }
+
+    long randomOwnerId() {
+        return ThreadLocalRandom.current().nextLong(1, owners + 1);
+    }
+
+    long randomItemId() {
+        return ThreadLocalRandom.current().nextLong(1, items + 1);
+    }
+
+    long randomAvailableItemId() {
+        return availableItemIds[ThreadLocalRandom.current().nextInt(availableItemIds.length)];
+    }
+
+    private void seedUsers(JdbcTemplate jdbc) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"user" + i, "user" + i + "@bench.ru"});
+        }
+        batch(jdbc, "INSERT INTO users (name, email) VALUES (?, ?)", rows);
+        jdbc.execute("ALTER SEQUENCE users_seq RESTART WITH " + (users + 51));
+    }
+
+    private void seedItems(JdbcTemplate jdbc) {
+        List<Object[]> rows = new ArrayList<>();
+        List<Long> available = new ArrayList<>();
+        for (int i = 1; i <= items; i++) {
+            String word = WORDS[i % WORDS.length];
+            boolean isAvailable = i % 7 != 0;
+            if (isAvailable) {
+                available.add((long) i);
+            }
+            rows.add(new Object[]{word + " " + i, "Good " + word + " for rent, item " + i, isAvailable,
+                (long) (i % owners) + 1});
+        }
+        batch(jdbc, "INSERT INTO items (name, description, is_available, owner_id) VALUES (?, ?, ?, ?)", rows);
+        jdbc.execute("ALTER SEQUENCE items_seq RESTART WITH " + (items + 51));
+        availableItemIds = available.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void seedBookingsAndComments(JdbcTemplate jdbc) {
+        LocalDateTime now = LocalDateTime.now();
+        int bookers = users - owners;
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 1; i <= items; i++) {
+            for (int k = 0; k < bookingsPerItem; k++) {
+                LocalDateTime start = now.plusDays(2L * k - bookingsPerItem);
+                BookingStatus status = k % 4 == 3 ? BookingStatus.REJECTED
+                        : k % 4 == 2 ? BookingStatus.WAITING : BookingStatus.APPROVED;
+                bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)), (long) i,
+                    (long) owners + 1 + (i + k) % bookers, status.name()});
+            }
+            for (int k = 0; k < commentsPerItem; k++) {
+                comments.add(new Object[]{"Comment " + k + " on item " + i, (long) i,
+                    (long) owners + 1 + (i + k) % bookers, Timestamp.valueOf(now.minusDays(k))});
+            }
+        }
+        batch(jdbc, "INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?)",
+                bookings);
+        batch(jdbc, "INSERT INTO comments (text, item_id, author_id, created) VALUES (?, ?, ?, ?)", comments);
+    }
+
+    private static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPage;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    @Benchmark
+    public List<ItemDto> searchItems(ShareItState state) {
+        String word = Dataset.WORDS[ThreadLocalRandom.current().nextInt(Dataset.WORDS.length)];
+        return state.itemService.searchItems(word);
+    }
+
+    @Benchmark
+    public ItemPage getItemsByOwner(ShareItState state) {
+        return state.itemService.getItemsByOwner(state.dataset.randomOwnerId(), null, 50);
+    }
+
+    @Benchmark
+    public ItemWithBookingDto getItemById(ShareItState state) {
+        return state.itemService.getItemById(state.dataset.randomItemId());
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Стоимость сериализации списков бронирований и вещей собственника в JSON и Smile, с gzip и без.
+ * Размеры ответов каждого формата печатаются при подготовке состояния.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private static final TypeReference<List<BookingDto>> BOOKING_LIST = new TypeReference<>() {
+    };
+
+    @Param({"JSON", "SMILE"})
+    public Format format;
+
+    @Param({"50", "500"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<BookingDto> bookings;
+    private List<ItemWithBookingDto> items;
+    private byte[] encodedBookings;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = format.mapper();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        bookings = new ArrayList<>(size);
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String word = Dataset.WORDS[i % Dataset.WORDS.length];
+            ItemDto item = new ItemDto((long) i, word + " " + i, "Отличный " + word + ", почти новый", true, null);
+            UserDto booker = new UserDto((long) i, "user" + i, "user" + i + "@mail.ru");
+            BookingDto last = new BookingDto(2L * i, start.plusDays(i), start.plusDays(i + 1), item, booker,
+                    BookingStatus.APPROVED);
+            BookingDto next = new BookingDto(2L * i + 1, start.plusDays(i + 30), start.plusDays(i + 31), item, booker,
+                    BookingStatus.APPROVED);
+            bookings.add(last);
+            List<CommentDto> comments = new ArrayList<>();
+            for (int c = 0; c < 3; c++) {
+                comments.add(new CommentDto((long) c, "Всё работало как надо, спасибо!", "user" + c,
+                        start.plusDays(i + 2)));
+            }
+            items.add(new ItemWithBookingDto(item.getId(), item.getName(), item.getDescription(), true, last, next,
+                    comments, 3L, 12L, start.plusDays(i + 2)));
+        }
+        encodedBookings = mapper.writeValueAsBytes(bookings);
+        byte[] encodedItems = mapper.writeValueAsBytes(items);
+        System.out.printf("%n%s, %d rows: bookings %d B (gzip %d B), owner items %d B (gzip %d B)%n", format, size,
+                encodedBookings.length, gzip(encodedBookings).length, encodedItems.length, gzip(encodedItems).length);
+    }
+
+    @Benchmark
+    public byte[] writeBookings() throws IOException {
+        return mapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] writeOwnerItems() throws IOException {
+        return mapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] writeBookingsGzip() throws IOException {
+        return gzip(mapper.writeValueAsBytes(bookings));
+    }
+
+    @Benchmark
+    public List<BookingDto> readBookings() throws IOException {
+        return mapper.readValue(encodedBookings, BOOKING_LIST);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    public enum Format {
+        JSON {
+            @Override
+            ObjectMapper mapper() {
+                return Jackson2ObjectMapperBuilder.json().build();
+            }
+        },
+        SMILE {
+            @Override
+            ObjectMapper mapper() {
+                return Jackson2ObjectMapperBuilder.smile().build();
+            }
+        };
+
+        abstract ObjectMapper mapper();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.UUID;
+
+/**
+ * Поднимает приложение без веб-сервера на отдельной базе H2 и наполняет её данными заданного объёма.
+ */
+@State(Scope.Benchmark)
+public class ShareItState {
+    @Param("1000")
+    public int users;
+
+    @Param("5000")
+    public int items;
+
+    @Param("5")
+    public int bookingsPerItem;
+
+    @Param("3")
+    public int commentsPerItem;
+
+    ConfigurableApplicationContext context;
+    ItemService itemService;
+    BookingService bookingService;
+    Dataset dataset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                        "logging.level.org.springframework=WARN",
+                        "logging.level.org.hibernate=WARN")
+                .run();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        dataset = new Dataset(users, items, bookingsPerItem, commentsPerItem);
+        dataset.seed(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает пропускную способность HTTP-слоя на платформенных и виртуальных потоках
+ * при числе одновременных клиентов, заметно превышающем размер пула соединений.
+ * Кэш карточек вещей отключён, чтобы каждый запрос доходил до JDBC.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(256)
+public class ThreadingBenchmark {
+
+    @Benchmark
+    public int getItem(ServerState state) throws IOException, InterruptedException {
+        return state.send(HttpRequest.newBuilder(state.uri("/items/" + state.dataset.randomItemId())));
+    }
+
+    @Benchmark
+    public int getBookingsByOwner(ServerState state) throws IOException, InterruptedException {
+        return state.send(HttpRequest.newBuilder(state.uri("/bookings/owner"))
+                .header("X-Sharer-User-Id", String.valueOf(state.dataset.randomOwnerId())));
+    }
+
+    @State(Scope.Benchmark)
+    public static class ServerState {
+        @Param({"false", "true"})
+        public boolean virtualThreads;
+
+        @Param("1000")
+        public int users;
+
+        @Param("5000")
+        public int items;
+
+        ConfigurableApplicationContext context;
+        Dataset dataset;
+        private HttpClient client;
+        private String baseUrl;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = new SpringApplicationBuilder(ShareItApp.class)
+                    .web(WebApplicationType.SERVLET)
+                    .profiles("test")
+                    .properties("spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                            "server.port=0",
+                            "spring.threads.virtual.enabled=" + virtualThreads,
+                            "shareit.cache.items.enabled=false",
+                            "logging.level.org.springframework=WARN",
+                            "logging.level.org.hibernate=WARN")
+                    .run();
+            dataset = new Dataset(users, items, 5, 3);
+            dataset.seed(context);
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        URI uri(String path) {
+            return URI.create(baseUrl + path);
+        }
+
+        int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+            return client.send(request.GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+    }
+}
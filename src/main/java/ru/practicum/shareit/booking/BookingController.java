@@ -1,19 +1,38 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.status.BookingStatus;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private static final String NDJSON = "application/x-ndjson";
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto createBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -21,6 +40,12 @@ public class BookingController {
         return bookingService.createBooking(userId, bookingDto);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingBatchResultDto> updateBookingStatuses(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @RequestBody List<BookingDecisionDto> decisions) {
+        return bookingService.updateBookingStatuses(userId, decisions);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto updateBookingStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
                                           @PathVariable Long bookingId,
@@ -29,21 +54,69 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDto getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                 @PathVariable Long bookingId) {
-        return bookingService.getBookingById(userId, bookingId);
+    public ResponseEntity<BookingDto> getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @PathVariable Long bookingId,
+                                                 WebRequest request) {
+        String tag = bookingService.getBookingTag(userId, bookingId);
+        if (tag != null && request.checkNotModified(tag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .varyBy(USER_ID_HEADER)
+                .body(bookingService.getBookingById(userId, bookingId));
     }
 
     @GetMapping
-    public List<BookingDto> getBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                        @RequestParam(defaultValue = "ALL") BookingStatus status) {
-        return bookingService.getBookingsByUser(userId, status);
+    public ResponseEntity<List<BookingDto>> getBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        @RequestParam(defaultValue = "ALL") BookingStatus status,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int size) {
+        return toResponse(bookingService.getBookingsByUser(userId, status, cursor, size));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                               @RequestParam(defaultValue = "ALL") BookingStatus status) {
-        return bookingService.getBookingsByOwner(userId, status);
+    public ResponseEntity<List<BookingDto>> getBookingsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @RequestParam(defaultValue = "ALL") BookingStatus status,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "50") int size) {
+        return toResponse(bookingService.getBookingsByOwner(userId, status, cursor, size));
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return toNdjson(out -> bookingService.exportBookingsByUser(userId, ndjsonWriter(out)));
+    }
+
+    @GetMapping(value = "/owner/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return toNdjson(out -> bookingService.exportBookingsByOwner(userId, ndjsonWriter(out)));
+    }
+
+    private ResponseEntity<StreamingResponseBody> toNdjson(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    private Consumer<BookingDto> ndjsonWriter(OutputStream out) {
+        ObjectWriter writer = objectMapper.writerFor(BookingDto.class);
+        return booking -> {
+            try {
+                out.write(writer.writeValueAsBytes(booking));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private ResponseEntity<List<BookingDto>> toResponse(BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,331 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingInterval;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.datasource.ReplicaPool;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Интервалы активных (WAITING и APPROVED) бронирований по каждой вещи.
+ * <p>
+ * Индекс локален для экземпляра и служит кэшем базы: интервалы вещи загружаются при старте или
+ * при первом обращении и перечитываются не реже раза в {@code refreshInterval}, чтобы подхватить
+ * бронирования, созданные и отклонённые другими экземплярами. Найденное пересечение перепроверяется
+ * перечитыванием вещи из базы, а пропущенное ловит ограничение {@code ex_bookings_item_period}
+ * в PostgreSQL.
+ * <p>
+ * Непересекающиеся интервалы хранятся по началу, и проверка пересечения смотрит только на последний
+ * интервал, начавшийся раньше конца запроса: O(log n). Интервалы, пересекающиеся с уже сохранёнными
+ * (бронирования, созданные до ограничения), хранятся отдельно и проверяются перебором.
+ * Интервалы, прочитанные с реплики, используются для ответа, но не сохраняются.
+ * <p>
+ * Бронирования одной вещи сериализуются блокировкой этой вещи, которая удерживается до завершения
+ * транзакции; чтение индекса её не ждёт. Загрузка из базы не сохраняется, если за время запроса
+ * вещь из той же полосы изменилась, — иначе снимок мог бы затереть изменение после коммита.
+ */
+@Slf4j
+@Component
+public class BookingAvailabilityIndex {
+    private static final int STRIPES = 64;
+    private static final List<BookingStatus> ACTIVE = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final long refreshNanos;
+    private final Map<Long, ItemLock> itemLocks = new ConcurrentHashMap<>();
+    private final Map<Long, Slots> slotsByItem = new ConcurrentHashMap<>();
+    /**
+     * Счётчики изменений по полосам вещей: загрузка сохраняется, только если счётчик её полосы
+     * не изменился, пока шёл запрос.
+     */
+    private final AtomicLongArray changes = new AtomicLongArray(STRIPES);
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository,
+                                    @Value("${shareit.bookings.availability.refresh-interval:30s}")
+                                    Duration refreshInterval) {
+        this.bookingRepository = bookingRepository;
+        this.refreshNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * Снимок читается в пишущей транзакции, то есть с основной базы, а не с реплики.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void build() {
+        long[] startChanges = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            startChanges[i] = changes.get(i);
+        }
+        long loadedAt = System.nanoTime();
+        List<BookingInterval> intervals = bookingRepository.findIntervalsByStatusInAndEndAfter(ACTIVE,
+                LocalDateTime.now());
+        Map<Long, Slots> snapshot = new HashMap<>();
+        for (BookingInterval interval : intervals) {
+            snapshot.computeIfAbsent(interval.getItemId(), key -> new Slots(loadedAt))
+                    .put(interval.getId(), interval.getStart(), interval.getEnd());
+        }
+        snapshot.forEach((itemId, slots) -> store(itemId, slots, startChanges[stripe(itemId)]));
+        log.info("Индекс занятости построен, активных бронирований: {}", intervals.size());
+    }
+
+    /**
+     * Блокирует вещь до конца текущей транзакции. Блокировка своя у каждой вещи, поэтому медленный
+     * коммит задерживает только бронирования той же вещи.
+     */
+    public void lock(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка вещи возможна только внутри транзакции");
+        }
+        ItemLock itemLock = itemLocks.compute(itemId, (id, current) -> {
+            ItemLock acquired = current == null ? new ItemLock() : current;
+            acquired.holders++;
+            return acquired;
+        });
+        itemLock.lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                itemLock.lock.unlock();
+                itemLocks.computeIfPresent(itemId, (id, current) -> --current.holders == 0 ? null : current);
+            }
+        });
+    }
+
+    /**
+     * Пересекается ли [start, end) с активным бронированием вещи. Положительный ответ по ранее
+     * загруженным интервалам подтверждается перечитыванием вещи из базы.
+     */
+    public boolean overlaps(Long itemId, LocalDateTime start, LocalDateTime end) {
+        long checkedAt = System.nanoTime();
+        Slots slots = slotsFor(itemId);
+        if (!slots.overlaps(start, end)) {
+            return false;
+        }
+        return slots.loadedAt - checkedAt >= 0 || load(itemId).overlaps(start, end);
+    }
+
+    /**
+     * Занятые интервалы вещи, пересекающие [from, to), обрезанные по границам запроса
+     * и упорядоченные по началу. Интервалы могут пересекаться и примыкать друг к другу.
+     */
+    public List<Interval> busyIntervals(Long itemId, LocalDateTime from, LocalDateTime to) {
+        List<Interval> intervals = new ArrayList<>();
+        for (Interval interval : slotsFor(itemId).intersecting(from, to)) {
+            intervals.add(new Interval(interval.start().isBefore(from) ? from : interval.start(),
+                    interval.end().isAfter(to) ? to : interval.end()));
+        }
+        return intervals;
+    }
+
+    public void add(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        afterCommit(() -> update(itemId, slots -> {
+            slots.evictFinished(LocalDateTime.now());
+            slots.put(bookingId, start, end);
+        }));
+    }
+
+    public void remove(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        afterCommit(() -> update(itemId, slots -> slots.remove(bookingId, start)));
+    }
+
+    /**
+     * Забывает интервалы вещи, например когда база отвергла бронирование, которое индекс считал
+     * свободным. При следующем обращении интервалы перечитываются.
+     */
+    public void invalidate(Long itemId) {
+        changes.incrementAndGet(stripe(itemId));
+        slotsByItem.remove(itemId);
+    }
+
+    /**
+     * Изменяет уже загруженные интервалы вещи. Незагруженная вещь будет прочитана из базы
+     * вместе с изменением при первом обращении, а идущая загрузка не сохранится: счётчик
+     * увеличивается до изменения.
+     */
+    private void update(Long itemId, Consumer<Slots> change) {
+        changes.incrementAndGet(stripe(itemId));
+        slotsByItem.computeIfPresent(itemId, (id, slots) -> {
+            change.accept(slots);
+            return slots;
+        });
+    }
+
+    private Slots slotsFor(Long itemId) {
+        Slots slots = slotsByItem.get(itemId);
+        if (slots == null || System.nanoTime() - slots.loadedAt > refreshNanos) {
+            slots = load(itemId);
+        }
+        return slots;
+    }
+
+    private Slots load(Long itemId) {
+        long startChanges = changes.get(stripe(itemId));
+        Slots slots = new Slots(System.nanoTime());
+        for (BookingInterval interval : bookingRepository.findIntervalsByItemIdAndStatusInAndEndAfter(itemId,
+                ACTIVE, LocalDateTime.now())) {
+            slots.put(interval.getId(), interval.getStart(), interval.getEnd());
+        }
+        if (!ReplicaPool.isReadingReplica()) {
+            slotsByItem.compute(itemId, (id, current) -> changes.get(stripe(itemId)) == startChanges
+                    && (current == null || current.loadedAt - slots.loadedAt < 0) ? slots : current);
+        }
+        return slots;
+    }
+
+    /**
+     * Сохраняет снимок построения, если вещь ещё не загружена и не менялась с начала построения.
+     */
+    private void store(Long itemId, Slots slots, long startChanges) {
+        slotsByItem.compute(itemId, (id, current) -> current == null
+                && changes.get(stripe(itemId)) == startChanges ? slots : current);
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), STRIPES);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Блокировка бронирований одной вещи; удаляется, когда её никто не держит и не ждёт.
+     * Число держателей меняется только внутри compute карты блокировок.
+     */
+    private static final class ItemLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int holders;
+    }
+
+    /**
+     * Интервалы одной вещи: конец бронирования по паре (начало, id). В {@code disjoint} интервалы
+     * не пересекаются, поэтому их концы упорядочены так же, как начала.
+     */
+    private static final class Slots {
+        private final NavigableMap<SlotKey, LocalDateTime> disjoint = new TreeMap<>();
+        private final NavigableMap<SlotKey, LocalDateTime> overlapping = new TreeMap<>();
+        private final long loadedAt;
+
+        private Slots(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        private synchronized void put(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            SlotKey key = new SlotKey(start, bookingId);
+            if (overlapsDisjoint(start, end)) {
+                overlapping.put(key, end);
+            } else {
+                disjoint.put(key, end);
+            }
+        }
+
+        private synchronized void remove(Long bookingId, LocalDateTime start) {
+            SlotKey key = new SlotKey(start, bookingId);
+            if (disjoint.remove(key) == null) {
+                overlapping.remove(key);
+            }
+        }
+
+        private synchronized void evictFinished(LocalDateTime now) {
+            disjoint.values().removeIf(end -> end.isBefore(now));
+            overlapping.values().removeIf(end -> end.isBefore(now));
+        }
+
+        private synchronized boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            if (overlapsDisjoint(from, to)) {
+                return true;
+            }
+            for (Map.Entry<SlotKey, LocalDateTime> entry : overlapping.entrySet()) {
+                if (entry.getKey().start().isBefore(to) && entry.getValue().isAfter(from)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Интервалы, пересекающие [from, to), упорядоченные по началу.
+         */
+        private synchronized List<Interval> intersecting(LocalDateTime from, LocalDateTime to) {
+            List<Interval> intervals = new ArrayList<>();
+            Map.Entry<SlotKey, LocalDateTime> before = disjoint.lowerEntry(SlotKey.first(from));
+            if (before != null && before.getValue().isAfter(from)) {
+                intervals.add(new Interval(before.getKey().start(), before.getValue()));
+            }
+            disjoint.subMap(SlotKey.first(from), true, SlotKey.first(to), false)
+                    .forEach((key, end) -> intervals.add(new Interval(key.start(), end)));
+            if (!overlapping.isEmpty()) {
+                overlapping.headMap(SlotKey.first(to), false).forEach((key, end) -> {
+                    if (end.isAfter(from)) {
+                        intervals.add(new Interval(key.start(), end));
+                    }
+                });
+                intervals.sort(Comparator.comparing(Interval::start));
+            }
+            return intervals;
+        }
+
+        /**
+         * Среди непересекающихся интервалов с [from, to) может пересекаться только последний,
+         * начавшийся раньше to: у него самый поздний конец.
+         */
+        private boolean overlapsDisjoint(LocalDateTime from, LocalDateTime to) {
+            Map.Entry<SlotKey, LocalDateTime> last = disjoint.lowerEntry(SlotKey.first(to));
+            return last != null && last.getValue().isAfter(from);
+        }
+    }
+
+    private record SlotKey(LocalDateTime start, Long bookingId) implements Comparable<SlotKey> {
+        private static SlotKey first(LocalDateTime start) {
+            return new SlotKey(start, Long.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(SlotKey other) {
+            int byStart = start.compareTo(other.start);
+            return byStart != 0 ? byStart : bookingId.compareTo(other.bookingId);
+        }
+    }
+
+    public record Interval(LocalDateTime start, LocalDateTime end) {
+    }
+}
@@ -1,41 +1,126 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.status.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByBookerId(Long bookerId, Sort sort);
+    String FETCH = "SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE ";
 
-    List<Booking> findByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime end, Sort sort);
+    String SEEK = " AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3)) ";
 
-    List<Booking> findByBookerIdAndStartIsAfter(Long bookerId, LocalDateTime start, Sort sort);
+    String ORDER = " ORDER BY b.start DESC, b.id DESC";
 
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = ?1 AND ?2 BETWEEN b.start AND b.end")
-    List<Booking> findByBookerIdAndCurrent(Long bookerId, LocalDateTime now, Sort sort);
+    int EXPORT_FETCH_SIZE = 500;
 
-    List<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Sort sort);
+    @Query(FETCH + "b.booker.id = ?1" + SEEK + ORDER)
+    List<Booking> findPageByBookerId(Long bookerId, LocalDateTime cursorStart, Long cursorId, Limit limit);
 
-    List<Booking> findByItemOwnerId(Long ownerId, Sort sort);
+    @Query(FETCH + "b.booker.id = ?1" + SEEK +
+            "AND b.end < ?4" + ORDER)
+    List<Booking> findPageByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime cursorStart, Long cursorId,
+                                                   LocalDateTime end, Limit limit);
 
-    List<Booking> findByItemOwnerIdAndEndIsBefore(Long ownerId, LocalDateTime end, Sort sort);
+    @Query(FETCH + "b.booker.id = ?1" + SEEK +
+            "AND b.start > ?4" + ORDER)
+    List<Booking> findPageByBookerIdAndStartIsAfter(Long bookerId, LocalDateTime cursorStart, Long cursorId,
+                                                    LocalDateTime start, Limit limit);
 
-    List<Booking> findByItemOwnerIdAndStartIsAfter(Long ownerId, LocalDateTime start, Sort sort);
+    @Query(FETCH + "b.booker.id = ?1" + SEEK +
+            "AND ?4 BETWEEN b.start AND b.end" + ORDER)
+    List<Booking> findPageByBookerIdAndCurrent(Long bookerId, LocalDateTime cursorStart, Long cursorId,
+                                               LocalDateTime now, Limit limit);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = ?1 AND ?2 BETWEEN b.start AND b.end")
-    List<Booking> findByItemOwnerIdAndCurrent(Long ownerId, LocalDateTime now, Sort sort);
+    @Query(FETCH + "b.booker.id = ?1" + SEEK +
+            "AND b.status = ?4" + ORDER)
+    List<Booking> findPageByBookerIdAndStatus(Long bookerId, LocalDateTime cursorStart, Long cursorId,
+                                              BookingStatus status, Limit limit);
 
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Sort sort);
+    @Query(FETCH + "b.item.owner.id = ?1" + SEEK + ORDER)
+    List<Booking> findPageByItemOwnerId(Long ownerId, LocalDateTime cursorStart, Long cursorId, Limit limit);
 
-    List<Booking> findByItemIdInAndStatus(List<Long> itemIds, BookingStatus status);
+    @Query(FETCH + "b.item.owner.id = ?1" + SEEK +
+            "AND b.end < ?4" + ORDER)
+    List<Booking> findPageByItemOwnerIdAndEndIsBefore(Long ownerId, LocalDateTime cursorStart, Long cursorId,
+                                                      LocalDateTime end, Limit limit);
+
+    @Query(FETCH + "b.item.owner.id = ?1" + SEEK +
+            "AND b.start > ?4" + ORDER)
+    List<Booking> findPageByItemOwnerIdAndStartIsAfter(Long ownerId, LocalDateTime cursorStart, Long cursorId,
+                                                       LocalDateTime start, Limit limit);
+
+    @Query(FETCH + "b.item.owner.id = ?1" + SEEK +
+            "AND ?4 BETWEEN b.start AND b.end" + ORDER)
+    List<Booking> findPageByItemOwnerIdAndCurrent(Long ownerId, LocalDateTime cursorStart, Long cursorId,
+                                                  LocalDateTime now, Limit limit);
+
+    @Query(FETCH + "b.item.owner.id = ?1" + SEEK +
+            "AND b.status = ?4" + ORDER)
+    List<Booking> findPageByItemOwnerIdAndStatus(Long ownerId, LocalDateTime cursorStart, Long cursorId,
+                                                 BookingStatus status, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query(FETCH + "b.booker.id = ?1" + ORDER)
+    Stream<Booking> streamByBookerId(Long bookerId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query(FETCH + "b.item.owner.id = ?1" + ORDER)
+    Stream<Booking> streamByItemOwnerId(Long ownerId);
+
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.status IN ?1 AND b.end > ?2")
+    List<BookingInterval> findIntervalsByStatusInAndEndAfter(List<BookingStatus> statuses, LocalDateTime end);
+
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.item.id = ?1 AND b.status IN ?2 AND b.end > ?3")
+    List<BookingInterval> findIntervalsByItemIdAndStatusInAndEndAfter(Long itemId, List<BookingStatus> statuses,
+                                                                      LocalDateTime end);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findWithItemAndBookerById(Long id);
+
+    @Query(FETCH + "b.item.id IN ?1 AND b.status = ?2 AND (" +
+            "b.start = (SELECT MAX(l.start) FROM Booking l WHERE l.item = b.item AND l.status = ?2 AND l.start < ?3) OR " +
+            "b.start = (SELECT MIN(n.start) FROM Booking n WHERE n.item = b.item AND n.status = ?2 AND n.start > ?3))")
+    List<Booking> findLastAndNextByItemIdIn(List<Long> itemIds, BookingStatus status, LocalDateTime now);
+
+    @Query("SELECT b.item.id AS itemId, COUNT(b) AS count FROM Booking b " +
+            "WHERE b.item.id IN ?1 AND b.status = ?2 GROUP BY b.item.id")
+    List<ItemBookingCount> countByItemIdInAndStatus(List<Long> itemIds, BookingStatus status);
+
+    @Query("SELECT b.booker.id AS bookerId, i.owner.id AS ownerId, b.version AS bookingVersion, " +
+            "i.version AS itemVersion, u.version AS bookerVersion " +
+            "FROM Booking b JOIN b.item i JOIN b.booker u WHERE b.id = ?1")
+    Optional<BookingVersion> findVersionById(Long bookingId);
+
+    @Query(FETCH + "b.id IN ?1")
+    List<Booking> findAllWithItemAndBookerByIdIn(Collection<Long> ids);
+
+    /**
+     * Меняет статус, только если бронирование ещё в статусе {@code expected} и вещь принадлежит
+     * {@code ownerId}. Проверка и запись выполняются одним оператором, поэтому из двух
+     * параллельных решений по одному бронированию применится только одно.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ?4, b.version = b.version + 1 " +
+            "WHERE b.id = ?1 AND b.status = ?3 AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = ?2)")
+    int compareAndSetStatus(Long bookingId, Long ownerId, BookingStatus expected, BookingStatus status);
 
     List<Booking> findByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId,
                                                                BookingStatus status, LocalDateTime end);
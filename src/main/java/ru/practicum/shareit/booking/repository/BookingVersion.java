@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.repository;
+
+/**
+ * Версии, от которых зависит бронирование в ответе, и участники, которым оно доступно.
+ */
+public interface BookingVersion {
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    Long getBookingVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.repository;
+
+/**
+ * Число бронирований вещи без загрузки самих бронирований.
+ */
+public interface ItemBookingCount {
+    Long getItemId();
+
+    Long getCount();
+}
@@ -1,20 +1,30 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.status.BookingStatus;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto createBooking(Long userId, BookingCreateDto bookingDto);
 
     BookingDto updateBookingStatus(Long userId, Long bookingId, Boolean approved);
 
+    List<BookingBatchResultDto> updateBookingStatuses(Long userId, List<BookingDecisionDto> decisions);
+
     BookingDto getBookingById(Long userId, Long bookingId);
 
-    List<BookingDto> getBookingsByUser(Long userId, BookingStatus status);
+    String getBookingTag(Long userId, Long bookingId);
+
+    BookingPage getBookingsByUser(Long userId, BookingStatus status, String cursor, int size);
 
-    List<BookingDto> getBookingsByOwner(Long userId, BookingStatus status);
+    BookingPage getBookingsByOwner(Long userId, BookingStatus status, String cursor, int size);
+    void exportBookingsByUser(Long userId, Consumer<BookingDto> sink);
 
+    void exportBookingsByOwner(Long userId, Consumer<BookingDto> sink);
 }
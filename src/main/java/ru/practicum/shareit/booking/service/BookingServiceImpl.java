@@ -1,32 +1,63 @@
 package ru.practicum.shareit.booking.service;
+import jakarta.persistence.EntityManager;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.pagination.BookingCursor;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.metrics.Listing;
+import ru.practicum.shareit.metrics.ListingMetrics;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.validator.UserIdentityValidator;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1_000;
+    private static final String OVERLAP_CONSTRAINT = "ex_bookings_item_period";
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final UserIdentityValidator userIdentityValidator;
+    private final EntityManager entityManager;
+    private final ListingMetrics listingMetrics;
+    private final ItemBookingSummaryService summaryService;
 
     @Override
     @Transactional
@@ -50,6 +81,11 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Неверные даты бронирования вещи");
         }
 
+        availabilityIndex.lock(item.getId());
+        if (availabilityIndex.overlaps(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new BookingConflictException("Вещь уже забронирована на эти даты");
+        }
+
         Booking booking = new Booking();
         booking.setStart(bookingDto.getStart());
         booking.setEnd(bookingDto.getEnd());
@@ -57,32 +93,116 @@ public class BookingServiceImpl implements BookingService {
         booking.setBooker(booker);
         booking.setStatus(BookingStatus.WAITING);
 
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlapConflict(e)) {
+                throw e;
+            }
+            // Бронирование создано другим экземпляром, и локальный индекс о нём не знал
+            availabilityIndex.invalidate(item.getId());
+            throw new BookingConflictException("Вещь уже забронирована на эти даты");
+        }
+        availabilityIndex.add(savedBooking);
         return BookingMapper.toBookingDto(savedBooking);
     }
 
     @Override
     @Transactional
     public BookingDto updateBookingStatus(Long userId, Long bookingId, Boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
+        int updated = bookingRepository.compareAndSetStatus(bookingId, userId, BookingStatus.WAITING,
+                approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Бронирование отсутствует"));
 
-        if (!booking.getItem().getOwner().getId().equals(userId)) {
-            throw new AccessDeniedException("Только собственник может одобрить/отклонить бронирование.");
+        if (updated == 0) {
+            if (!booking.getItem().getOwner().getId().equals(userId)) {
+                throw new AccessDeniedException("Только собственник может одобрить/отклонить бронирование.");
+            }
+            throw new AccessDeniedException("Бронирование уже одобрено или отклонено собственником");
         }
 
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new AccessDeniedException("Бронирование уже одобрено или отклонено собственником");
+        onStatusChanged(booking);
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> updateBookingStatuses(Long userId, List<BookingDecisionDto> decisions) {
+        if (decisions == null || decisions.isEmpty()) {
+            throw new ValidationException("Список решений не может быть пустым");
+        }
+        if (decisions.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("За один запрос можно обработать не более " + MAX_BATCH_SIZE + " бронирований");
+        }
+        Set<Long> bookingIds = decisions.stream()
+                .filter(Objects::nonNull)
+                .map(BookingDecisionDto::getBookingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemAndBookerByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<BookingBatchResultDto> results = new ArrayList<>(decisions.size());
+        List<BookingBatchResultDto> decided = new ArrayList<>(decisions.size());
+        List<Booking> changed = new ArrayList<>(decisions.size());
+        Set<Long> seen = new HashSet<>();
+        for (BookingDecisionDto decision : decisions) {
+            BookingBatchResultDto result = new BookingBatchResultDto(decision == null ? null : decision.getBookingId(),
+                    null, null);
+            results.add(result);
+            if (decision == null || decision.getBookingId() == null || decision.getApproved() == null) {
+                result.setError("Не указано бронирование или решение по нему");
+                continue;
+            }
+            if (!seen.add(decision.getBookingId())) {
+                result.setError("Бронирование указано в запросе повторно");
+                continue;
+            }
+            Booking booking = bookings.get(decision.getBookingId());
+            if (booking == null) {
+                result.setError("Бронирование отсутствует");
+                continue;
+            }
+            if (!booking.getItem().getOwner().getId().equals(userId)) {
+                result.setError("Только собственник может одобрить/отклонить бронирование.");
+                continue;
+            }
+            if (booking.getStatus() != BookingStatus.WAITING) {
+                result.setError("Бронирование уже одобрено или отклонено собственником");
+                continue;
+            }
+            booking.setStatus(decision.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+            changed.add(booking);
+            decided.add(result);
+        }
+
+        // Изменения уходят пачкой UPDATE ... WHERE id = ? AND version = ?: если бронирование
+        // успели изменить параллельно, откатывается весь запрос
+        try {
+            bookingRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new BookingConflictException("Бронирования изменились во время обработки, повторите запрос");
+        }
+        for (int i = 0; i < changed.size(); i++) {
+            onStatusChanged(changed.get(i));
+            decided.get(i).setBooking(BookingMapper.toBookingDto(changed.get(i)));
         }
+        return results;
+    }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
-        return BookingMapper.toBookingDto(updatedBooking);
+    private void onStatusChanged(Booking booking) {
+        if (booking.getStatus() == BookingStatus.APPROVED) {
+            summaryService.onBookingApproved(booking);
+        } else {
+            availabilityIndex.remove(booking);
+        }
     }
 
     @Override
     public BookingDto getBookingById(Long userId, Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Бронирование отсутствует"));
 
         if (!booking.getBooker().getId().equals(userId) &&
@@ -93,77 +213,151 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toBookingDto(booking);
     }
 
+    /**
+     * Тег выдаётся только участникам бронирования, остальные получают обычный ответ с ошибкой.
+     */
+    @Override
+    public String getBookingTag(Long userId, Long bookingId) {
+        return bookingRepository.findVersionById(bookingId)
+                .filter(version -> version.getBookerId().equals(userId) || version.getOwnerId().equals(userId))
+                .map(version -> EntityTags.of("booking", bookingId, version.getBookingVersion(),
+                        version.getItemVersion(), version.getBookerVersion()))
+                .orElse(null);
+    }
+
     @Override
-    public List<BookingDto> getBookingsByUser(Long userId, BookingStatus status) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Пользователь не найден"));
+    public BookingPage getBookingsByUser(Long userId, BookingStatus status, String cursor, int size) {
+        userIdentityValidator.validate(userId, "Пользователь не найден");
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
+        BookingCursor after = BookingCursor.decode(cursor);
+        Limit limit = toLimit(size);
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
+        List<Booking> bookings = listingMetrics.bookingsTimer(Listing.BOOKINGS_BY_BOOKER, status)
+                .record(() -> findBookerPage(userId, status, after, now, limit));
+        BookingPage page = toBookingPage(bookings, size);
+        listingMetrics.recordSize(Listing.BOOKINGS_BY_BOOKER, page.getBookings().size());
+        return page;
+    }
+
+    @Override
+    public BookingPage getBookingsByOwner(Long userId, BookingStatus status, String cursor, int size) {
+        userIdentityValidator.validate(userId, "Пользователь не найден");
 
+        BookingCursor after = BookingCursor.decode(cursor);
+        Limit limit = toLimit(size);
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = listingMetrics.bookingsTimer(Listing.BOOKINGS_BY_OWNER, status)
+                .record(() -> findOwnerPage(userId, status, after, now, limit));
+        BookingPage page = toBookingPage(bookings, size);
+        listingMetrics.recordSize(Listing.BOOKINGS_BY_OWNER, page.getBookings().size());
+        return page;
+    }
+
+    @Override
+    public void exportBookingsByUser(Long userId, Consumer<BookingDto> sink) {
+        userIdentityValidator.validate(userId, "Пользователь не найден");
+
+        try (Stream<Booking> bookings = bookingRepository.streamByBookerId(userId)) {
+            export(bookings, sink);
+        }
+    }
+
+    @Override
+    public void exportBookingsByOwner(Long userId, Consumer<BookingDto> sink) {
+        userIdentityValidator.validate(userId, "Пользователь не найден");
+
+        try (Stream<Booking> bookings = bookingRepository.streamByItemOwnerId(userId)) {
+            export(bookings, sink);
+        }
+    }
+
+    private static boolean isOverlapConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName() != null
+                        && violation.getConstraintName().toLowerCase().contains(OVERLAP_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    private void export(Stream<Booking> bookings, Consumer<BookingDto> sink) {
+        Iterator<Booking> iterator = bookings.iterator();
+        int exported = 0;
+        while (iterator.hasNext()) {
+            sink.accept(BookingMapper.toBookingDto(iterator.next()));
+            if (++exported % BookingRepository.EXPORT_FETCH_SIZE == 0) {
+                entityManager.clear();
+            }
+        }
+    }
+
+    private List<Booking> findBookerPage(Long userId, BookingStatus status, BookingCursor after,
+                                         LocalDateTime now, Limit limit) {
         switch (status) {
             case ALL:
-                bookings = bookingRepository.findByBookerId(userId, sort);
-                break;
+                return bookingRepository.findPageByBookerId(userId, after.start(), after.id(), limit);
             case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndCurrent(userId, now, sort);
-                break;
+                return bookingRepository.findPageByBookerIdAndCurrent(userId, after.start(), after.id(),
+                        now, limit);
             case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndIsBefore(userId, now, sort);
-                break;
+                return bookingRepository.findPageByBookerIdAndEndIsBefore(userId, after.start(), after.id(),
+                        now, limit);
             case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartIsAfter(userId, now, sort);
-                break;
+                return bookingRepository.findPageByBookerIdAndStartIsAfter(userId, after.start(), after.id(),
+                        now, limit);
             case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatus(userId, BookingStatus.WAITING, sort);
-                break;
+                return bookingRepository.findPageByBookerIdAndStatus(userId, after.start(), after.id(),
+                        BookingStatus.WAITING, limit);
             case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatus(userId, BookingStatus.REJECTED, sort);
-                break;
+                return bookingRepository.findPageByBookerIdAndStatus(userId, after.start(), after.id(),
+                        BookingStatus.REJECTED, limit);
             default:
                 throw new RuntimeException("Неизвестный статус: " + status);
         }
-
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
     }
 
-    @Override
-    public List<BookingDto> getBookingsByOwner(Long userId, BookingStatus status) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Пользователь не найден"));
-
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
-
+    private List<Booking> findOwnerPage(Long userId, BookingStatus status, BookingCursor after,
+                                        LocalDateTime now, Limit limit) {
         switch (status) {
             case ALL:
-                bookings = bookingRepository.findByItemOwnerId(userId, sort);
-                break;
+                return bookingRepository.findPageByItemOwnerId(userId, after.start(), after.id(), limit);
             case CURRENT:
-                bookings = bookingRepository.findByItemOwnerIdAndCurrent(userId, now, sort);
-                break;
+                return bookingRepository.findPageByItemOwnerIdAndCurrent(userId, after.start(), after.id(),
+                        now, limit);
             case PAST:
-                bookings = bookingRepository.findByItemOwnerIdAndEndIsBefore(userId, now, sort);
-                break;
+                return bookingRepository.findPageByItemOwnerIdAndEndIsBefore(userId, after.start(), after.id(),
+                        now, limit);
             case FUTURE:
-                bookings = bookingRepository.findByItemOwnerIdAndStartIsAfter(userId, now, sort);
-                break;
+                return bookingRepository.findPageByItemOwnerIdAndStartIsAfter(userId, after.start(), after.id(),
+                        now, limit);
             case WAITING:
-                bookings = bookingRepository.findByItemOwnerIdAndStatus(userId, BookingStatus.WAITING, sort);
-                break;
+                return bookingRepository.findPageByItemOwnerIdAndStatus(userId, after.start(), after.id(),
+                        BookingStatus.WAITING, limit);
             case REJECTED:
-                bookings = bookingRepository.findByItemOwnerIdAndStatus(userId, BookingStatus.REJECTED, sort);
-                break;
+                return bookingRepository.findPageByItemOwnerIdAndStatus(userId, after.start(), after.id(),
+                        BookingStatus.REJECTED, limit);
             default:
                 throw new RuntimeException("Неизвестный статус: " + status);
         }
+    }
+
+    private Limit toLimit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return Limit.of(size + 1);
+    }
 
-        return bookings.stream()
+    private BookingPage toBookingPage(List<Booking> bookings, int size) {
+        String nextCursor = null;
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            nextCursor = BookingCursor.after(bookings.get(size - 1)).encode();
+        }
+        List<BookingDto> bookingDtos = bookings.stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
+        return new BookingPage(bookingDtos, nextCursor);
     }
 }
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Кэш собранных карточек вещей. Запись и удаление откладываются до коммита транзакции,
+ * чтобы в кэш не попадали незакоммиченные изменения.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String ITEMS = "items";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${shareit.cache.items.enabled:true}") boolean enabled,
+                                     @Value("${shareit.cache.items.maximum-size:10000}") long maximumSize,
+                                     @Value("${shareit.cache.items.ttl:10m}") Duration ttl) {
+        if (!enabled) {
+            return new NoOpCacheManager();
+        }
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(ITEMS);
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.RequestFilter;
+import org.zalando.logbook.ResponseFilter;
+import org.zalando.logbook.core.BodyReplacers;
+import org.zalando.logbook.core.Conditions;
+import org.zalando.logbook.core.RequestFilters;
+import org.zalando.logbook.core.ResponseFilters;
+import ru.practicum.shareit.logging.AsyncHttpLogWriter;
+import ru.practicum.shareit.logging.SamplingRequestCondition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * HTTP-лог Logbook с выборкой по эндпоинтам и выводом из фонового потока.
+ * Обрезка тел настраивается штатным свойством logbook.write.max-body-size.
+ */
+@Configuration
+public class HttpLogConfig {
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final String BINARY_BODY = "<smile>";
+
+    @Bean
+    public Predicate<HttpRequest> requestCondition(
+            @Value("${shareit.http-log.sample-rate:1.0}") double defaultRate,
+            @Value("${shareit.http-log.sample-rates:}") String rates) {
+        return new SamplingRequestCondition(defaultRate, parseRates(rates));
+    }
+
+    /**
+     * Тела в Smile не печатаются: штатный фильтр Logbook заменяет только известные ему бинарные типы.
+     */
+    @Bean
+    public RequestFilter requestFilter() {
+        return RequestFilter.merge(RequestFilters.defaultValue(),
+                RequestFilters.replaceBody(BodyReplacers.replaceBody(Conditions.contentType(SMILE), BINARY_BODY)));
+    }
+
+    @Bean
+    public ResponseFilter responseFilter() {
+        return ResponseFilter.merge(ResponseFilters.defaultValue(),
+                ResponseFilters.replaceBody(BodyReplacers.replaceBody(Conditions.contentType(SMILE), BINARY_BODY)));
+    }
+
+    @Bean(destroyMethod = "close")
+    public HttpLogWriter httpLogWriter(@Value("${shareit.http-log.buffer-size:8192}") int bufferSize,
+                                       MeterRegistry registry) {
+        return new AsyncHttpLogWriter(bufferSize, registry);
+    }
+
+    /**
+     * Разбирает строку вида {@code /bookings=0.1,/users=1.0}.
+     */
+    private static Map<String, Double> parseRates(String rates) {
+        Map<String, Double> result = new HashMap<>();
+        for (String rate : rates.split(",")) {
+            if (rate.isBlank()) {
+                continue;
+            }
+            String[] parts = rate.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Некорректная доля HTTP-лога: " + rate);
+            }
+            result.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+        return result;
+    }
+}
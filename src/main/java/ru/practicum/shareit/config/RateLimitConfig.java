@@ -0,0 +1,64 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.util.pattern.PathPatternParser;
+import ru.practicum.shareit.ratelimit.RateLimitFilter;
+import ru.practicum.shareit.ratelimit.RateLimitRule;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ограничение частоты запросов к пишущим эндпоинтам. Фильтр стоит первым в цепочке,
+ * поэтому отклонённый запрос не занимает ни соединение пула, ни разрешение
+ * {@link ConnectionPoolLimitFilter}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            @Value("${shareit.rate-limit.rules:}") String rules,
+            @Value("${shareit.rate-limit.max-in-flight:64}") int maxInFlight,
+            @Value("${shareit.rate-limit.users.maximum-size:100000}") long maximumSize,
+            @Value("${shareit.rate-limit.users.idle-timeout:10m}") Duration idleTimeout) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(parseRules(rules), maxInFlight, maximumSize, idleTimeout));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Разбирает строку вида {@code POST /bookings=20/1m,POST /items/{itemId}/comment=5/1m}.
+     */
+    private static List<RateLimitRule> parseRules(String rules) {
+        List<RateLimitRule> result = new ArrayList<>();
+        for (String rule : rules.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            String[] parts = rule.split("=");
+            String[] endpoint = parts[0].trim().split("\\s+");
+            String[] limit = parts.length == 2 ? parts[1].split("/") : new String[0];
+            if (endpoint.length != 2 || limit.length != 2) {
+                throw new IllegalArgumentException("Некорректное правило ограничения запросов: " + rule);
+            }
+            int capacity = Integer.parseInt(limit[0].trim());
+            Duration period = DurationStyle.detectAndParse(limit[1].trim());
+            if (capacity < 1 || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("Некорректное правило ограничения запросов: " + rule);
+            }
+            result.add(new RateLimitRule(endpoint[0].toUpperCase(), PathPatternParser.defaultInstance.parse(endpoint[1]),
+                    capacity, period));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.practicum.shareit.datasource.CurrentUserFilter;
+import ru.practicum.shareit.datasource.ReadYourWritesTracker;
+import ru.practicum.shareit.datasource.ReplicaPool;
+import ru.practicum.shareit.datasource.WriteTrackingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Направляет транзакции readOnly на реплики, остальные — на основную базу.
+ * Соединение берётся лениво, при первом запросе, когда флаг readOnly транзакции уже выставлен.
+ * {@link ReadYourWritesTracker} — единственный TaskDecorator контекста, и Spring Boot подключает его
+ * к applicationTaskExecutor, в котором пишутся потоковые выгрузки.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${shareit.datasource.replicas.max-lag:2s}") Duration maxLag,
+            @Value("${shareit.cache.users.maximum-size:100000}") long maximumSize) {
+        return new ReadYourWritesTracker(maxLag, maximumSize);
+    }
+
+    @Bean
+    public ReplicaPool replicaDataSource(DataSourceProperties properties,
+                                         HikariDataSource primaryDataSource,
+                                         ReadYourWritesTracker readYourWritesTracker,
+                                         @Value("${shareit.datasource.replicas.urls}") List<String> urls,
+                                         @Value("${shareit.datasource.replicas.pool-size:10}") int poolSize,
+                                         @Value("${shareit.datasource.replicas.connection-timeout:1s}")
+                                         Duration connectionTimeout,
+                                         @Value("${shareit.datasource.replicas.retry-after:5s}")
+                                         Duration retryAfter) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .build();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        log.info("Чтение направляется на реплики: {}", replicas.size());
+        return new ReplicaPool(replicas, primaryDataSource, readYourWritesTracker, retryAfter);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaDataSource,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new WriteTrackingDataSource(primaryDataSource, readYourWritesTracker));
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public FilterRegistrationBean<CurrentUserFilter> currentUserFilter(ReadYourWritesTracker readYourWritesTracker) {
+        FilterRegistrationBean<CurrentUserFilter> registration =
+                new FilterRegistrationBean<>(new CurrentUserFilter(readYourWritesTracker));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
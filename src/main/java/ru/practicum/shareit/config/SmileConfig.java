@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Бинарный формат Smile для клиентов, которые явно запрашивают application/x-jackson-smile.
+ * Бин заменяет штатный конвертер Spring MVC на том же месте в списке, после JSON, поэтому
+ * запросы без явного Accept по-прежнему получают JSON. Маппер собирается тем же построителем,
+ * что и JSON, поэтому модули и форматы дат совпадают.
+ */
+@Configuration
+public class SmileConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Включается вместе с spring.threads.virtual.enabled=true на Java 21: Tomcat и
+ * applicationTaskExecutor при этом переходят на виртуальные потоки, а число
+ * одновременных запросов ограничивается размером пула соединений.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConnectionPoolLimitFilter> connectionPoolLimitFilter(
+            DataSource dataSource,
+            @Value("${shareit.threads.virtual.permits-per-connection:2}") int permitsPerConnection,
+            @Value("${shareit.threads.virtual.acquire-timeout:5s}") Duration acquireTimeout) throws SQLException {
+        int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        int permits = poolSize * permitsPerConnection;
+        log.info("Виртуальные потоки включены, одновременных запросов не более {}", permits);
+
+        FilterRegistrationBean<ConnectionPoolLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConnectionPoolLimitFilter(permits, acquireTimeout));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
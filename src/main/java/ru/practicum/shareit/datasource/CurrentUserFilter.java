@@ -0,0 +1,54 @@
+package ru.practicum.shareit.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+
+/**
+ * Передаёт пользователя из заголовка X-Sharer-User-Id в {@link ReadYourWritesTracker} на время запроса.
+ * Запросы профиля /users/{userId} приходят без заголовка и выполняются от имени пользователя из пути.
+ */
+public class CurrentUserFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final PathPattern USER_PATH = PathPatternParser.defaultInstance.parse("/users/{userId}");
+
+    private final ReadYourWritesTracker tracker;
+
+    public CurrentUserFilter(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String userId = request.getHeader(USER_HEADER);
+        if (userId == null) {
+            PathPattern.PathMatchInfo match = USER_PATH.matchAndExtract(PathContainer.parsePath(request.getRequestURI()));
+            userId = match == null ? null : match.getUriVariables().get("userId");
+        }
+        tracker.setCurrentUser(parseUserId(userId));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            tracker.clearCurrentUser();
+        }
+    }
+
+    private static Long parseUserId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
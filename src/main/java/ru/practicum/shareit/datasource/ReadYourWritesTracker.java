@@ -0,0 +1,91 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Помнит пользователей, которые недавно что-то записали или чей профиль недавно изменили. Пока не прошло
+ * допустимое отставание реплик, читающие транзакции от их имени идут на основную базу, и пользователь
+ * видит свои изменения. Текущий пользователь хранится в потоке запроса и переносится в задачи
+ * асинхронного исполнителя через {@link #decorate(Runnable)}.
+ */
+public class ReadYourWritesTracker implements TaskDecorator {
+    private final ThreadLocal<Long> currentUser = new ThreadLocal<>();
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration maxLag, long maximumSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxLag)
+                .build();
+    }
+
+    public void setCurrentUser(Long userId) {
+        currentUser.set(userId);
+    }
+
+    public void clearCurrentUser() {
+        currentUser.remove();
+    }
+
+    /**
+     * Отмечает запись в профиль пользователя. Регистрация и изменение профиля приходят без
+     * заголовка X-Sharer-User-Id, а читать профиль потом будут по его id.
+     */
+    public void onUserWritten(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(userId, Boolean.TRUE);
+                }
+            });
+        } else {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Выполняет задачу от имени пользователя, создавшего её, — например потоковую выгрузку,
+     * которую Spring MVC пишет в потоке асинхронного исполнителя.
+     */
+    @Override
+    public Runnable decorate(Runnable task) {
+        Long userId = currentUser.get();
+        return () -> {
+            Long previous = currentUser.get();
+            currentUser.set(userId);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    currentUser.remove();
+                } else {
+                    currentUser.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Вызывается при выдаче соединения основной базы пишущей транзакции.
+     */
+    void onWriteConnection() {
+        Long userId = currentUser.get();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        onUserWritten(userId);
+    }
+
+    boolean mustReadPrimary() {
+        Long userId = currentUser.get();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
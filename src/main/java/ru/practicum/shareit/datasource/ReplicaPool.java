@@ -0,0 +1,133 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник соединений для читающих транзакций. Реплики выбираются по кругу; реплика, не выдавшая
+ * соединение, исключается на время retryAfter. Если доступных реплик нет или пользователь недавно
+ * писал, соединение берётся из основной базы. Транзакция, получившая соединение реплики, отмечается,
+ * чтобы прочитанное из неё не попадало в кэши: см. {@link #isReadingReplica()}.
+ */
+@Slf4j
+public class ReplicaPool extends AbstractDataSource implements Closeable {
+    private static final Object READING_REPLICA = new Object();
+
+    private final List<Replica> replicas;
+    private final DataSource primary;
+    private final ReadYourWritesTracker tracker;
+    private final long retryAfterNanos;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaPool(List<HikariDataSource> replicas, DataSource primary, ReadYourWritesTracker tracker,
+                       Duration retryAfter) {
+        this.replicas = replicas.stream()
+                .map(Replica::new)
+                .toList();
+        this.primary = primary;
+        this.tracker = tracker;
+        this.retryAfterNanos = retryAfter.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (tracker.mustReadPrimary()) {
+            return source.open(primary);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            Connection connection = replica.tryConnect(source);
+            if (connection != null) {
+                markReadingReplica();
+                return connection;
+            }
+        }
+        return source.open(primary);
+    }
+
+    /**
+     * Читает ли текущая транзакция с реплики, данные которой могут отставать от основной базы.
+     */
+    public static boolean isReadingReplica() {
+        return TransactionSynchronizationManager.hasResource(READING_REPLICA);
+    }
+
+    private static void markReadingReplica() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(READING_REPLICA)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(READING_REPLICA, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(READING_REPLICA);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private class Replica {
+        private final HikariDataSource dataSource;
+        private volatile long unavailableUntil;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Соединение реплики или null, если она недоступна. Неподдерживаемый пулом способ
+         * получения соединения пробрасывается и не исключает реплику.
+         */
+        Connection tryConnect(ConnectionSource source) throws SQLFeatureNotSupportedException {
+            if (unavailableUntil != 0 && System.nanoTime() - unavailableUntil < 0) {
+                return null;
+            }
+            try {
+                Connection connection = source.open(dataSource);
+                if (unavailableUntil != 0) {
+                    unavailableUntil = 0;
+                    log.info("Реплика {} снова доступна", dataSource.getPoolName());
+                }
+                return connection;
+            } catch (SQLFeatureNotSupportedException e) {
+                throw e;
+            } catch (SQLException | RuntimeException e) {
+                unavailableUntil = System.nanoTime() + retryAfterNanos;
+                log.warn("Реплика {} недоступна, чтение переключено: {}", dataSource.getPoolName(), e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Основная база: отмечает пользователя в {@link ReadYourWritesTracker}, когда его транзакция берёт соединение на запись.
+ */
+public class WriteTrackingDataSource extends DelegatingDataSource {
+    private final ReadYourWritesTracker tracker;
+
+    public WriteTrackingDataSource(DataSource primary, ReadYourWritesTracker tracker) {
+        super(primary);
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        tracker.onWriteConnection();
+        return connection;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Строгие ETag, вычисляемые из версий сущностей, от которых зависит ответ. Тег меняется
+ * вместе с любой из версий, и для его проверки не нужно собирать и сериализовать сам ответ.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String of(String kind, Object... versions) {
+        StringBuilder key = new StringBuilder();
+        for (Object version : versions) {
+            key.append(version).append(':');
+        }
+        return "\"" + kind + "-" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -1,12 +1,21 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentPage;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
+import ru.practicum.shareit.item.dto.ItemCard;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPage;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,6 +23,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
     private final ItemService itemService;
 
     @PostMapping
@@ -22,6 +34,12 @@ public class ItemController {
         return itemService.createItem(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public List<ItemBatchResultDto> createItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestBody List<ItemDto> itemDtos) {
+        return itemService.createItems(userId, itemDtos);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                               @PathVariable Long itemId,
@@ -30,13 +48,40 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemWithBookingDto getItem(@PathVariable Long itemId) {
-        return itemService.getItemById(itemId);
+    public ResponseEntity<ItemWithBookingDto> getItem(@PathVariable Long itemId, WebRequest request) {
+        String tag = itemService.getItemTag(itemId);
+        if (tag != null && request.checkNotModified(tag)) {
+            return null;
+        }
+        ItemCard card = itemService.getItemCard(itemId, tag);
+        return ResponseEntity.ok(card.getItem());
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Long itemId,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
     }
 
     @GetMapping
-    public List<ItemWithBookingDto> getItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemService.getItemsByOwner(userId);
+    public ResponseEntity<List<ItemWithBookingDto>> getItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @RequestParam(required = false) Long cursor,
+                                                             @RequestParam(defaultValue = "50") int size,
+                                                             WebRequest request) {
+        String tag = itemService.getItemsByOwnerTag(userId, cursor, size);
+        if (tag != null && request.checkNotModified(tag)) {
+            return null;
+        }
+        ItemPage page = itemService.getItemsByOwner(userId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .varyBy(USER_ID_HEADER);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/search")
@@ -50,4 +95,16 @@ public class ItemController {
                                  @RequestBody CommentDto commentDto) {
         return itemService.addComment(userId, itemId, commentDto);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable Long itemId,
+                                                        @RequestParam(required = false) Long cursor,
+                                                        @RequestParam(defaultValue = "50") int size) {
+        CommentPage page = itemService.getComments(itemId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getComments());
+    }
 }
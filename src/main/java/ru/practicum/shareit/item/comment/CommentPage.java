@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.comment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentPage {
+    private List<CommentDto> comments;
+    private String nextCursor;
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item.comment;
 
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,7 +11,24 @@ import java.util.List;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByItemId(Long itemId);
+    /**
+     * Не больше {@code limit} последних отзывов каждой вещи, от новых к старым, и общее число её отзывов.
+     * Отзывы только добавляются, поэтому порядок id совпадает с порядком создания.
+     */
+    @Query("SELECT r.id AS id, r.itemId AS itemId, r.text AS text, r.authorName AS authorName, " +
+            "r.created AS created, r.commentCount AS commentCount FROM (" +
+            "SELECT c.id AS id, c.item.id AS itemId, c.text AS text, a.name AS authorName, c.created AS created, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.item.id ORDER BY c.id DESC) AS position, " +
+            "COUNT(*) OVER (PARTITION BY c.item.id) AS commentCount " +
+            "FROM Comment c JOIN c.author a WHERE c.item.id IN ?1) r " +
+            "WHERE r.position <= ?2 ORDER BY r.itemId, r.id DESC")
+    List<RecentComment> findRecentByItemIdIn(List<Long> itemIds, int limit);
 
-    List<Comment> findByItemIdIn(List<Long> itemIds);
+    @Query("SELECT c.id AS id, c.item.id AS itemId, c.text AS text, a.name AS authorName, c.created AS created " +
+            "FROM Comment c JOIN c.author a WHERE c.item.id = ?1 AND c.id < ?2 ORDER BY c.id DESC")
+    List<CommentView> findViewsByItemIdAndIdLessThan(Long itemId, Long beforeId, Limit limit);
+
+    @Query("SELECT c.item.id AS itemId, MAX(c.created) AS created FROM Comment c " +
+            "WHERE c.item.id IN ?1 GROUP BY c.item.id")
+    List<ItemLastComment> findLastCommentTimesByItemIdIn(List<Long> itemIds);
 }
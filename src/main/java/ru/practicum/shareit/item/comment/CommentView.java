@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отзыв с именем автора, выбранным соединением, без загрузки сущности пользователя.
+ */
+public interface CommentView {
+    Long getId();
+
+    Long getItemId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Время последнего комментария к вещи.
+ */
+public interface ItemLastComment {
+    Long getItemId();
+
+    LocalDateTime getCreated();
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.comment;
+
+/**
+ * Один из последних отзывов к вещи вместе с общим числом её отзывов.
+ */
+public interface RecentComment extends CommentView {
+    Long getCommentCount();
+}
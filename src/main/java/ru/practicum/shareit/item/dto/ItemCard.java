@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Карточка вещи вместе с ETag версий, по которым она собрана.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemCard {
+    private String tag;
+    private ItemWithBookingDto item;
+}
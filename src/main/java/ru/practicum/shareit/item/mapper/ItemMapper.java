@@ -10,7 +10,8 @@ public class ItemMapper {
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
-                item.getIsAvailable()
+                item.getIsAvailable(),
+                item.getRequestId()
         );
     }
 
@@ -20,6 +21,7 @@ public class ItemMapper {
         item.setName(itemDto.getName());
         item.setDescription(itemDto.getDescription());
         item.setIsAvailable(itemDto.getAvailable());
+        item.setRequestId(itemDto.getRequestId());
 
         return item;
     }
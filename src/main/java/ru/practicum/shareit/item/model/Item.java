@@ -14,7 +14,8 @@ import ru.practicum.shareit.user.model.User;
 @AllArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false)
@@ -26,7 +27,14 @@ public class Item {
     @Column(name = "is_available", nullable = false)
     private Boolean isAvailable;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
+
+    @Column(name = "request_id")
+    private Long requestId;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
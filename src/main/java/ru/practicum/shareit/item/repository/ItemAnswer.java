@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+/**
+ * Вещь, предложенная в ответ на запрос, без загрузки сущности и её собственника.
+ */
+public interface ItemAnswer {
+    Long getId();
+
+    String getName();
+
+    Long getOwnerId();
+
+    Long getRequestId();
+}
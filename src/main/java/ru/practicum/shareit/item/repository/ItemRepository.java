@@ -1,19 +1,42 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByOwnerId(Long ownerId);
+    List<Item> findByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long afterId, Limit limit);
+
+    @Query("SELECT i.id AS itemId, i.version AS itemVersion, s.version AS summaryVersion " +
+            "FROM Item i LEFT JOIN ItemBookingSummary s ON s.itemId = i.id WHERE i.id = ?1")
+    Optional<ItemVersion> findVersionById(Long itemId);
+
+    @Query("SELECT i.id AS itemId, i.version AS itemVersion, s.version AS summaryVersion, " +
+            "s.nextBookingStart AS nextBookingStart, lb.version AS lastBookerVersion, " +
+            "nb.version AS nextBookerVersion " +
+            "FROM Item i LEFT JOIN ItemBookingSummary s ON s.itemId = i.id " +
+            "LEFT JOIN s.lastBooking l LEFT JOIN l.booker lb " +
+            "LEFT JOIN s.nextBooking n LEFT JOIN n.booker nb " +
+            "WHERE i.owner.id = ?1 AND i.id > ?2 ORDER BY i.id")
+    List<OwnedItemVersion> findVersionsByOwnerIdAndIdGreaterThan(Long ownerId, Long afterId, Limit limit);
+
+    @Query("SELECT i.id FROM Item i WHERE i.id > ?1 ORDER BY i.id")
+    List<Long> findIdsAfter(Long afterId, Limit limit);
 
     @Query(value = "SELECT i FROM Item i " +
             "WHERE i.isAvailable = true AND " +
             "(UPPER(i.name) LIKE UPPER(CONCAT('%', ?1, '%')) OR " +
             "UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%')))")
     List<Item> search(String text);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.owner.id AS ownerId, i.requestId AS requestId " +
+            "FROM Item i WHERE i.requestId IN ?1 ORDER BY i.id")
+    List<ItemAnswer> findAnswersByRequestIdIn(Collection<Long> requestIds);
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+/**
+ * Версии, от которых зависит карточка вещи: сама вещь и её сводка. Версия сводки растёт
+ * с каждым отзывом и при переименовании автора отзыва, поэтому список отзывов для тега
+ * не перечитывается.
+ */
+public interface ItemVersion {
+    Long getItemId();
+
+    Long getItemVersion();
+
+    Long getSummaryVersion();
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Версии, от которых зависит вещь в списке собственника: к карточке добавляются начало
+ * ближайшего бронирования и авторы последнего и ближайшего бронирований.
+ */
+public interface OwnedItemVersion extends ItemVersion {
+    LocalDateTime getNextBookingStart();
+
+    Long getLastBookerVersion();
+
+    Long getNextBookerVersion();
+}
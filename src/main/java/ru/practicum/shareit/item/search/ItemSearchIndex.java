@@ -0,0 +1,197 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Триграммный инвертированный индекс по доступным вещам.
+ * Возвращает те же вещи, что и {@link ItemRepository#search(String)}:
+ * доступные и содержащие текст в названии или описании без учёта регистра.
+ * Для каждой вещи, в том числе недоступной, помнится последняя применённая версия, поэтому
+ * снимок начального построения не затирает более новые изменения, пришедшие после коммита.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.index.enabled:true}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        itemRepository.findAll().forEach(item -> put(snapshot(item)));
+        ready = true;
+        log.info("Поисковый индекс построен, доступных вещей: {}", items.size());
+    }
+
+    /**
+     * Индекс можно использовать, если он включен, построен и запрос не содержит
+     * символов шаблона LIKE, которые в SQL-пути имеют особый смысл.
+     */
+    public boolean canServe(String text) {
+        return enabled && ready && text.indexOf('%') < 0 && text.indexOf('_') < 0;
+    }
+
+    public List<Item> search(String text) {
+        String query = normalize(text);
+        List<Long> ids = new ArrayList<>();
+        for (Long id : candidates(query)) {
+            IndexedItem indexed = items.get(id);
+            if (indexed != null && indexed.matches(query)) {
+                ids.add(id);
+            }
+        }
+        Collections.sort(ids);
+        List<Item> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            IndexedItem indexed = items.get(id);
+            if (indexed != null) {
+                result.add(indexed.item());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Обновляет индекс после коммита текущей транзакции, чтобы откат не оставлял в нём
+     * несуществующих изменений.
+     */
+    public void onItemSaved(Item item) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Снимок берётся после коммита: версия сущности увеличивается только при сбросе изменений
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(snapshot(item));
+                }
+            });
+        } else {
+            put(snapshot(item));
+        }
+    }
+
+    private void put(Item item) {
+        writeLock.lock();
+        try {
+            if (isStale(item)) {
+                return;
+            }
+            if (item.getVersion() != null) {
+                versions.put(item.getId(), item.getVersion());
+            }
+            remove(item.getId());
+            if (!Boolean.TRUE.equals(item.getIsAvailable())) {
+                return;
+            }
+            IndexedItem indexed = new IndexedItem(item, normalize(item.getName()), normalize(item.getDescription()));
+            items.put(item.getId(), indexed);
+            for (String gram : indexed.grams()) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(item.getId());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean isStale(Item item) {
+        Long applied = versions.get(item.getId());
+        return applied != null && item.getVersion() != null && item.getVersion() < applied;
+    }
+
+    private void remove(Long itemId) {
+        IndexedItem previous = items.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : previous.grams()) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private Set<Long> candidates(String query) {
+        if (query.length() < GRAM) {
+            return items.keySet();
+        }
+        Set<Long> smallest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<Long> ids = postings.get(query.substring(i, i + GRAM));
+            if (ids == null) {
+                return Set.of();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        return smallest;
+    }
+
+    private static Item snapshot(Item item) {
+        return new Item(item.getId(), item.getName(), item.getDescription(), item.getIsAvailable(), null,
+                item.getRequestId(), item.getVersion());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record IndexedItem(Item item, String name, String description) {
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentPage;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
+import ru.practicum.shareit.item.dto.ItemCard;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPage;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     ItemDto createItem(Long userId, ItemDto itemDto);
 
+    List<ItemBatchResultDto> createItems(Long userId, List<ItemDto> itemDtos);
+
     ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto);
 
     ItemWithBookingDto getItemById(Long itemId);
 
-    List<ItemWithBookingDto> getItemsByOwner(Long userId);
+    ItemCard getItemCard(Long itemId, String tag);
+
+    String getItemTag(Long itemId);
+
+    ItemPage getItemsByOwner(Long userId, Long cursor, int size);
+
+    String getItemsByOwnerTag(Long userId, Long cursor, int size);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 
     List<ItemDto> searchItems(String text);
 
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
+
+    CommentPage getComments(Long itemId, Long cursor, int size);
 }
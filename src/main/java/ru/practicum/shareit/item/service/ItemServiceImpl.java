@@ -1,64 +1,165 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.datasource.ReplicaPool;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentPage;
 import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.comment.CommentView;
+import ru.practicum.shareit.item.comment.RecentComment;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
+import ru.practicum.shareit.item.dto.ItemCard;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPage;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.item.dto.TimeRangeDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.OwnedItemVersion;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.summary.ItemBookingSummary;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.metrics.Listing;
+import ru.practicum.shareit.metrics.ListingMetrics;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.validator.UserIdentityValidator;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 5_000;
+    private static final int RECENT_COMMENTS = 10;
+    private static final Duration DEFAULT_AVAILABILITY_PERIOD = Duration.ofDays(30);
+    private static final Duration MAX_AVAILABILITY_PERIOD = Duration.ofDays(366);
 
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final UserIdentityValidator userIdentityValidator;
+    private final ListingMetrics listingMetrics;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ItemBookingSummaryService summaryService;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final CacheManager cacheManager;
 
     @Override
     @Transactional
     public ItemDto createItem(Long userId, ItemDto itemDto) {
         validateItemForCreation(itemDto, userId);
 
-        User owner = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Собственник не найден"));
+        userIdentityValidator.validate(userId, "Собственник не найден");
+
+        if (itemDto.getRequestId() != null && !itemRequestRepository.existsById(itemDto.getRequestId())) {
+            throw new ItemRequestNotFoundException("Запрос не найден");
+        }
 
         Item item = ItemMapper.toItem(itemDto);
-        item.setOwner(owner);
+        item.setId(null);
+        item.setOwner(userRepository.getReferenceById(userId));
 
         Item savedItem = itemRepository.save(item);
+        summaryService.onItemsCreated(List.of(savedItem));
+        itemSearchIndex.onItemSaved(savedItem);
         return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
     @Transactional
+    public List<ItemBatchResultDto> createItems(Long userId, List<ItemDto> itemDtos) {
+        if (itemDtos == null || itemDtos.isEmpty()) {
+            throw new ValidationException("Список предметов не может быть пустым");
+        }
+        if (itemDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("За один запрос можно добавить не более " + MAX_BATCH_SIZE + " предметов");
+        }
+        userIdentityValidator.validate(userId, "Собственник не найден");
+        User owner = userRepository.getReferenceById(userId);
+        Set<Long> requestIds = itemDtos.stream()
+                .filter(Objects::nonNull)
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingRequestIds = itemRequestRepository.findAllById(requestIds).stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+
+        List<ItemBatchResultDto> results = new ArrayList<>(itemDtos.size());
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        List<ItemBatchResultDto> created = new ArrayList<>(itemDtos.size());
+        for (int i = 0; i < itemDtos.size(); i++) {
+            ItemBatchResultDto result = new ItemBatchResultDto(i, null, null);
+            try {
+                validateItemForCreation(itemDtos.get(i), userId);
+                Long requestId = itemDtos.get(i).getRequestId();
+                if (requestId != null && !existingRequestIds.contains(requestId)) {
+                    throw new ValidationException("Запрос " + requestId + " не найден");
+                }
+                Item item = ItemMapper.toItem(itemDtos.get(i));
+                item.setId(null);
+                item.setOwner(owner);
+                items.add(item);
+                created.add(result);
+            } catch (ValidationException e) {
+                result.setError(e.getMessage());
+            }
+            results.add(result);
+        }
+
+        List<Item> savedItems = itemRepository.saveAll(items);
+        summaryService.onItemsCreated(savedItems);
+        for (int i = 0; i < savedItems.size(); i++) {
+            itemSearchIndex.onItemSaved(savedItems.get(i));
+            created.get(i).setItem(ItemMapper.toItemDto(savedItems.get(i)));
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#itemId")
     public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Собственник не найден"));
+        userIdentityValidator.validate(userId, "Собственник не найден");
 
         Item existingItem = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException("Предмет не найден"));
@@ -86,65 +187,195 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item updatedItem = itemRepository.save(existingItem);
+        itemSearchIndex.onItemSaved(updatedItem);
         return ItemMapper.toItemDto(updatedItem);
     }
 
     @Override
     public ItemWithBookingDto getItemById(Long itemId) {
+        return getItemCard(itemId, getItemTag(itemId)).getItem();
+    }
+
+    /**
+     * Карточка из кэша отдаётся, только если её ETag совпадает с тегом, уже прочитанным вызывающим
+     * кодом для проверки If-None-Match: изменения, сделанные другим экземпляром или не вытеснившие
+     * запись (переименование автора отзыва), приводят к пересборке. Тег читается до тела, поэтому
+     * может оказаться старше тела, но не новее.
+     */
+    @Override
+    public ItemCard getItemCard(Long itemId, String tag) {
+        if (tag == null) {
+            throw new ItemNotFoundException("Предмет не найден");
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.ITEMS);
+        ItemCard cached = cache == null ? null : cache.get(itemId, ItemCard.class);
+        if (cached != null && cached.getTag().equals(tag)) {
+            return cached;
+        }
+
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException("Предмет не найден"));
-        List<Comment> comments = commentRepository.findByItemId(itemId);
-        List<CommentDto> commentDtos = comments.stream()
-                .map(this::toCommentDto)
-                .collect(Collectors.toList());
+        ItemWithBookingDto dto = toItemWithBookingDto(item, null, null, new ArrayList<>());
+        attachRecentComments(Map.of(itemId, dto));
+        ItemCard card = new ItemCard(tag, dto);
+        // Карточка, прочитанная с реплики, может отставать и не должна вытеснять свежую
+        if (cache != null && !ReplicaPool.isReadingReplica()) {
+            cache.put(itemId, card);
+        }
+        return card;
+    }
 
-        return toItemWithBookingDto(item, null, null, commentDtos);
+    @Override
+    public String getItemTag(Long itemId) {
+        return itemRepository.findVersionById(itemId)
+                .map(version -> EntityTags.of("item", itemId, version.getItemVersion(),
+                        version.getSummaryVersion()))
+                .orElse(null);
     }
 
     @Override
-    public List<ItemWithBookingDto> getItemsByOwner(Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("Собственник не найден"));
+    public ItemPage getItemsByOwner(Long userId, Long cursor, int size) {
+        userIdentityValidator.validate(userId, "Собственник не найден");
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+
+        List<Item> items = itemRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(userId,
+                cursor == null ? 0L : cursor, Limit.of(size + 1));
+        String nextCursor = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            nextCursor = String.valueOf(items.get(size - 1).getId());
+        }
+        listingMetrics.recordSize(Listing.ITEMS_BY_OWNER, items.size());
+        if (items.isEmpty()) {
+            return new ItemPage(new ArrayList<>(), null);
+        }
 
-        List<Item> items = itemRepository.findByOwnerId(userId);
         List<Long> itemIds = items.stream()
                 .map(Item::getId)
                 .collect(Collectors.toList());
 
-        List<Booking> bookings = bookingRepository.findByItemIdInAndStatus(itemIds, BookingStatus.APPROVED);
-        Map<Long, List<Booking>> bookingsByItemId = bookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-
-        List<Comment> comments = commentRepository.findByItemIdIn(itemIds);
-        Map<Long, List<Comment>> commentsByItemId = comments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
-
         LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        Map<Long, BookingDto> lastBookings = new HashMap<>();
+        Map<Long, BookingDto> nextBookings = new HashMap<>();
+        for (ItemBookingSummary summary : summaryRepository.findWithBookingsByItemIdIn(itemIds)) {
+            if (summary.isStale(now)) {
+                continue;
+            }
+            summaries.put(summary.getItemId(), summary);
+            if (summary.getLastBooking() != null) {
+                lastBookings.put(summary.getItemId(), BookingMapper.toBookingDto(summary.getLastBooking()));
+            }
+            if (summary.getNextBooking() != null) {
+                nextBookings.put(summary.getItemId(), BookingMapper.toBookingDto(summary.getNextBooking()));
+            }
+        }
+        // Сводки, которые ещё не пересчитаны после начала ближайшего бронирования, считаются по бронированиям
+        List<Long> unsummarizedIds = itemIds.stream()
+                .filter(itemId -> !summaries.containsKey(itemId))
+                .collect(Collectors.toList());
+        if (!unsummarizedIds.isEmpty()) {
+            for (Booking booking : bookingRepository.findLastAndNextByItemIdIn(unsummarizedIds,
+                    BookingStatus.APPROVED, now)) {
+                Map<Long, BookingDto> target = booking.getStart().isBefore(now) ? lastBookings : nextBookings;
+                target.putIfAbsent(booking.getItem().getId(), BookingMapper.toBookingDto(booking));
+            }
+        }
 
-        return items.stream()
+        Map<Long, ItemWithBookingDto> dtosById = new HashMap<>();
+        List<ItemWithBookingDto> itemDtos = items.stream()
                 .map(item -> {
-                    List<Booking> itemBookings = bookingsByItemId.getOrDefault(item.getId(), new ArrayList<>());
-
-                    BookingDto lastBooking = itemBookings.stream()
-                            .filter(booking -> booking.getStart().isBefore(now))
-                            .max((b1, b2) -> b1.getStart().compareTo(b2.getStart()))
-                            .map(BookingMapper::toBookingDto)
-                            .orElse(null);
-
-                    BookingDto nextBooking = itemBookings.stream()
-                            .filter(booking -> booking.getStart().isAfter(now))
-                            .min((b1, b2) -> b1.getStart().compareTo(b2.getStart()))
-                            .map(BookingMapper::toBookingDto)
-                            .orElse(null);
-
-                    List<CommentDto> itemComments = commentsByItemId.getOrDefault(item.getId(), new ArrayList<>())
-                            .stream()
-                            .map(this::toCommentDto)
-                            .collect(Collectors.toList());
-
-                    return toItemWithBookingDto(item, lastBooking, nextBooking, itemComments);
+                    ItemWithBookingDto dto = toItemWithBookingDto(item, lastBookings.get(item.getId()),
+                            nextBookings.get(item.getId()), new ArrayList<>());
+                    dtosById.put(item.getId(), dto);
+                    ItemBookingSummary summary = summaries.get(item.getId());
+                    if (summary != null) {
+                        dto.setApprovedBookingCount(summary.getApprovedCount());
+                        dto.setLastCommentAt(summary.getLastCommentAt());
+                    }
+                    return dto;
                 })
                 .collect(Collectors.toList());
+        attachRecentComments(dtosById);
+        return new ItemPage(itemDtos, nextCursor);
+    }
+
+    /**
+     * Тег страницы не выдаётся, если ответ зависит от текущего времени: у вещи нет сводки
+     * или её ближайшее бронирование уже началось, а сводка ещё не пересчитана.
+     */
+    @Override
+    public String getItemsByOwnerTag(Long userId, Long cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return null;
+        }
+        List<OwnedItemVersion> versions = itemRepository.findVersionsByOwnerIdAndIdGreaterThan(userId,
+                cursor == null ? 0L : cursor, Limit.of(size + 1));
+        if (versions.isEmpty()) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object> parts = new ArrayList<>(versions.size() * 6 + 3);
+        parts.add(userId);
+        parts.add(cursor);
+        parts.add(size);
+        for (OwnedItemVersion version : versions) {
+            if (version.getSummaryVersion() == null
+                    || version.getNextBookingStart() != null && !version.getNextBookingStart().isAfter(now)) {
+                return null;
+            }
+            parts.add(version.getItemId());
+            parts.add(version.getItemVersion());
+            parts.add(version.getSummaryVersion());
+            parts.add(version.getLastBookerVersion());
+            parts.add(version.getNextBookerVersion());
+        }
+        return EntityTags.of("items", parts.toArray());
+    }
+
+    /**
+     * Индекс занятости хранит только незавершённые бронирования, поэтому период начинается
+     * не раньше текущего момента.
+     */
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException("Предмет не найден");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plus(DEFAULT_AVAILABILITY_PERIOD) : to;
+        if (!end.isAfter(start)) {
+            throw new ValidationException("Конец периода должен быть позже его начала и текущего момента");
+        }
+        if (Duration.between(start, end).compareTo(MAX_AVAILABILITY_PERIOD) > 0) {
+            throw new ValidationException("Период не может быть длиннее " + MAX_AVAILABILITY_PERIOD.toDays() + " дней");
+        }
+
+        List<TimeRangeDto> busy = new ArrayList<>();
+        List<TimeRangeDto> free = new ArrayList<>();
+        LocalDateTime freeFrom = start;
+        for (BookingAvailabilityIndex.Interval interval : availabilityIndex.busyIntervals(itemId, start, end)) {
+            if (interval.start().isAfter(freeFrom)) {
+                free.add(new TimeRangeDto(freeFrom, interval.start()));
+                busy.add(new TimeRangeDto(interval.start(), interval.end()));
+            } else if (busy.isEmpty()) {
+                busy.add(new TimeRangeDto(interval.start(), interval.end()));
+            } else if (interval.end().isAfter(freeFrom)) {
+                busy.get(busy.size() - 1).setEnd(interval.end());
+            }
+            // Вложенный интервал заканчивается раньше предыдущего и не сдвигает конец занятости
+            if (interval.end().isAfter(freeFrom)) {
+                freeFrom = interval.end();
+            }
+        }
+        if (freeFrom.isBefore(end)) {
+            free.add(new TimeRangeDto(freeFrom, end));
+        }
+        return new ItemAvailabilityDto(itemId, start, end, busy, free);
     }
 
     @Override
@@ -153,14 +384,18 @@ public class ItemServiceImpl implements ItemService {
             return new ArrayList<>();
         }
 
-        String searchText = text.toLowerCase();
-        return itemRepository.search(text).stream()
+        List<Item> items = itemSearchIndex.canServe(text)
+                ? itemSearchIndex.search(text)
+                : itemRepository.search(text);
+        listingMetrics.recordSize(Listing.ITEMS_SEARCH, items.size());
+        return items.stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#itemId")
     public CommentDto addComment(Long userId, Long itemId, CommentDto commentDto) {
         User author = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Пользователь не найден"));
@@ -182,9 +417,47 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
 
         Comment savedComment = commentRepository.save(comment);
+        summaryService.onCommentAdded(savedComment);
         return toCommentDto(savedComment);
     }
 
+    @Override
+    public CommentPage getComments(Long itemId, Long cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+
+        List<CommentView> comments = commentRepository.findViewsByItemIdAndIdLessThan(itemId,
+                cursor == null ? Long.MAX_VALUE : cursor, Limit.of(size + 1));
+        if (comments.isEmpty() && !itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException("Предмет не найден");
+        }
+        String nextCursor = null;
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            nextCursor = String.valueOf(comments.get(size - 1).getId());
+        }
+        listingMetrics.recordSize(Listing.ITEM_COMMENTS, comments.size());
+        List<CommentDto> commentDtos = comments.stream()
+                .map(this::toCommentDto)
+                .collect(Collectors.toList());
+        return new CommentPage(commentDtos, nextCursor);
+    }
+
+    /**
+     * Последние отзывы и их общее число для всех вещей ответа выбираются одним запросом, полный список
+     * отзывов отдаётся постранично через {@link #getComments}.
+     */
+    private void attachRecentComments(Map<Long, ItemWithBookingDto> dtosById) {
+        dtosById.values().forEach(dto -> dto.setCommentCount(0L));
+        for (RecentComment comment : commentRepository.findRecentByItemIdIn(new ArrayList<>(dtosById.keySet()),
+                RECENT_COMMENTS)) {
+            ItemWithBookingDto dto = dtosById.get(comment.getItemId());
+            dto.setCommentCount(comment.getCommentCount());
+            dto.getComments().add(toCommentDto(comment));
+        }
+    }
+
     private void validateItemForCreation(ItemDto itemDto, Long userId) {
         if (itemDto == null) {
             throw new ValidationException("Предмет не может быть null");
@@ -227,4 +500,8 @@ public class ItemServiceImpl implements ItemService {
         dto.setCreated(comment.getCreated());
         return dto;
     }
+
+    private CommentDto toCommentDto(CommentView comment) {
+        return new CommentDto(comment.getId(), comment.getText(), comment.getAuthorName(), comment.getCreated());
+    }
 }
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item.summary;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сводка по бронированиям и комментариям вещи для списка вещей собственника.
+ * Начала последнего и ближайшего бронирований хранятся рядом со ссылками, чтобы
+ * обновления сводки не требовали загрузки самих бронирований.
+ */
+@Entity
+@Table(name = "item_booking_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    private Booking lastBooking;
+
+    @Column(name = "last_booking_start")
+    private LocalDateTime lastBookingStart;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    private Booking nextBooking;
+
+    @Column(name = "next_booking_start")
+    private LocalDateTime nextBookingStart;
+
+    @Column(name = "approved_count", nullable = false)
+    private long approvedCount;
+
+    @Column(name = "last_comment_at")
+    private LocalDateTime lastCommentAt;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public ItemBookingSummary(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    /**
+     * Ближайшее бронирование уже началось, и сводку нужно пересчитать.
+     */
+    public boolean isStale(LocalDateTime now) {
+        return nextBookingStart != null && !nextBookingStart.isAfter(now);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item.summary;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Query("SELECT s FROM ItemBookingSummary s " +
+            "LEFT JOIN FETCH s.lastBooking lb LEFT JOIN FETCH lb.booker " +
+            "LEFT JOIN FETCH s.nextBooking nb LEFT JOIN FETCH nb.booker " +
+            "WHERE s.itemId IN ?1")
+    List<ItemBookingSummary> findWithBookingsByItemIdIn(Collection<Long> itemIds);
+
+    /**
+     * Строки блокируются в порядке itemId, поэтому транзакции с пересекающимися наборами вещей
+     * не блокируют друг друга крест-накрест.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemBookingSummary s WHERE s.itemId IN ?1 ORDER BY s.itemId")
+    List<ItemBookingSummary> findForUpdateByItemIdIn(Collection<Long> itemIds);
+
+    @Query("SELECT s.itemId FROM ItemBookingSummary s WHERE s.nextBookingStart <= ?1 ORDER BY s.itemId")
+    List<Long> findItemIdsWithNextBookingStartedBefore(LocalDateTime now, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ItemBookingSummary s SET s.approvedCount = s.approvedCount + 1, s.version = s.version + 1 " +
+            "WHERE s.itemId = ?1")
+    int incrementApprovedCount(Long itemId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ItemBookingSummary s SET s.lastBooking = ?2, s.lastBookingStart = ?3, s.version = s.version + 1 " +
+            "WHERE s.itemId = ?1 AND (s.lastBookingStart IS NULL OR s.lastBookingStart < ?3)")
+    int offerLastBooking(Long itemId, Booking booking, LocalDateTime start);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ItemBookingSummary s SET s.nextBooking = ?2, s.nextBookingStart = ?3, s.version = s.version + 1 " +
+            "WHERE s.itemId = ?1 AND (s.nextBookingStart IS NULL OR s.nextBookingStart > ?3)")
+    int offerNextBooking(Long itemId, Booking booking, LocalDateTime start);
+
+    /**
+     * Версия сводки увеличивается при каждом отзыве, даже если время последнего не меняется:
+     * по ней строится ETag карточки вещи.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ItemBookingSummary s SET s.lastCommentAt = CASE " +
+            "WHEN s.lastCommentAt IS NULL OR s.lastCommentAt < ?2 THEN ?2 ELSE s.lastCommentAt END, " +
+            "s.version = s.version + 1 WHERE s.itemId = ?1")
+    int offerLastComment(Long itemId, LocalDateTime created);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ItemBookingSummary s SET s.version = s.version + 1 " +
+            "WHERE s.itemId IN (SELECT c.item.id FROM Comment c WHERE c.author.id = ?1)")
+    int incrementVersionByCommentAuthorId(Long authorId);
+}
@@ -0,0 +1,174 @@
+package ru.practicum.shareit.item.summary;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingCount;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.comment.ItemLastComment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддерживает сводки по вещам в актуальном состоянии. Одобрения и комментарии меняют
+ * сводку условными UPDATE в той же транзакции, поэтому параллельные изменения одной вещи
+ * не теряются. Когда ближайшее бронирование начинается, оно становится последним:
+ * такие сводки периодически пересчитываются по таблице бронирований.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBookingSummaryService {
+    private static final int BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onItemsCreated(List<Item> items) {
+        for (Item item : items) {
+            entityManager.persist(new ItemBookingSummary(item.getId()));
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBookingApproved(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        if (summaryRepository.incrementApprovedCount(itemId) == 0) {
+            recompute(List.of(itemId));
+            return;
+        }
+        if (booking.getStart().isAfter(LocalDateTime.now())) {
+            summaryRepository.offerNextBooking(itemId, booking, booking.getStart());
+        } else {
+            summaryRepository.offerLastBooking(itemId, booking, booking.getStart());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCommentAdded(Comment comment) {
+        Long itemId = comment.getItem().getId();
+        if (summaryRepository.offerLastComment(itemId, comment.getCreated()) == 0) {
+            recompute(List.of(itemId));
+        }
+    }
+
+    /**
+     * Имя автора показывается в отзывах карточек вещей, поэтому при его смене карточки
+     * этих вещей получают новую версию сводки и новый ETag на всех экземплярах.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCommentAuthorRenamed(Long authorId) {
+        summaryRepository.incrementVersionByCommentAuthorId(authorId);
+    }
+
+    /**
+     * Пересчитывает сводки вещей по бронированиям и комментариям, создавая недостающие.
+     * Строки сводок блокируются до конца транзакции, чтобы одновременное одобрение
+     * дождалось пересчёта и применило своё изменение поверх него.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recompute(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findForUpdateByItemIdIn(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        for (Long itemId : itemIds) {
+            ItemBookingSummary summary = summaries.get(itemId);
+            if (summary == null) {
+                summary = new ItemBookingSummary(itemId);
+                entityManager.persist(summary);
+                summaries.put(itemId, summary);
+            }
+            summary.setLastBooking(null);
+            summary.setLastBookingStart(null);
+            summary.setNextBooking(null);
+            summary.setNextBookingStart(null);
+            summary.setApprovedCount(0);
+            summary.setLastCommentAt(null);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Booking booking : bookingRepository.findLastAndNextByItemIdIn(itemIds, BookingStatus.APPROVED, now)) {
+            ItemBookingSummary summary = summaries.get(booking.getItem().getId());
+            if (booking.getStart().isBefore(now) && summary.getLastBooking() == null) {
+                summary.setLastBooking(booking);
+                summary.setLastBookingStart(booking.getStart());
+            } else if (booking.getStart().isAfter(now) && summary.getNextBooking() == null) {
+                summary.setNextBooking(booking);
+                summary.setNextBookingStart(booking.getStart());
+            }
+        }
+        for (ItemBookingCount count : bookingRepository.countByItemIdInAndStatus(itemIds, BookingStatus.APPROVED)) {
+            summaries.get(count.getItemId()).setApprovedCount(count.getCount());
+        }
+        for (ItemLastComment comment : commentRepository.findLastCommentTimesByItemIdIn(itemIds)) {
+            summaries.get(comment.getItemId()).setLastCommentAt(comment.getCreated());
+        }
+    }
+
+    /**
+     * Переносит начавшиеся ближайшие бронирования в последние.
+     */
+    @Scheduled(fixedDelayString = "${shareit.summary.rollover-interval:PT1M}")
+    public void rollover() {
+        int total = 0;
+        int rolled;
+        do {
+            rolled = transactionTemplate.execute(status -> {
+                List<Long> itemIds = summaryRepository.findItemIdsWithNextBookingStartedBefore(LocalDateTime.now(),
+                        Limit.of(BATCH_SIZE));
+                recompute(itemIds);
+                return itemIds.size();
+            });
+            total += rolled;
+        } while (rolled == BATCH_SIZE);
+        if (total > 0) {
+            log.debug("Пересчитано сводок с начавшимся бронированием: {}", total);
+        }
+    }
+
+    /**
+     * Пересчитывает сводки всех вещей пачками, каждая пачка в своей транзакции.
+     */
+    public int rebuildAll() {
+        int total = 0;
+        Long afterId = 0L;
+        while (true) {
+            Long from = afterId;
+            List<Long> itemIds = transactionTemplate.execute(status -> {
+                List<Long> ids = itemRepository.findIdsAfter(from, Limit.of(BATCH_SIZE));
+                recompute(ids);
+                return ids;
+            });
+            total += itemIds.size();
+            if (itemIds.size() < BATCH_SIZE) {
+                break;
+            }
+            afterId = itemIds.get(itemIds.size() - 1);
+        }
+        log.info("Сводки по вещам пересчитаны: {}", total);
+        return total;
+    }
+}
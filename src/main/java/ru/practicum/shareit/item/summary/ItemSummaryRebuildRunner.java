@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.summary;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Пересчитывает сводки всех вещей при запуске с аргументом {@code --rebuild-item-summaries},
+ * например после ручной правки бронирований в базе.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSummaryRebuildRunner implements ApplicationRunner {
+    static final String OPTION = "rebuild-item-summaries";
+
+    private final ItemBookingSummaryService summaryService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPTION)) {
+            summaryService.rebuildAll();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Precorrelation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Передаёт отформатированные записи Logbook фоновому потоку через кольцевой буфер,
+ * так что поток запроса не ждёт вывода в лог. Если буфер заполнен, запись отбрасывается
+ * и учитывается в счётчике shareit.http.log.dropped.
+ */
+@Slf4j
+public class AsyncHttpLogWriter implements HttpLogWriter, AutoCloseable {
+    private static final Logger HTTP_LOG = LoggerFactory.getLogger("org.zalando.logbook.Logbook");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final LogRingBuffer buffer;
+    private final Counter written;
+    private final Counter dropped;
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    public AsyncHttpLogWriter(int bufferSize, MeterRegistry registry) {
+        buffer = new LogRingBuffer(bufferSize);
+        written = Counter.builder("shareit.http.log.written")
+                .description("Записи HTTP-лога, выведенные фоновым потоком")
+                .register(registry);
+        dropped = Counter.builder("shareit.http.log.dropped")
+                .description("Записи HTTP-лога, отброшенные из-за заполненного буфера")
+                .register(registry);
+        drainer = new Thread(this::drain, "http-log-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+        log.info("Асинхронный HTTP-лог запущен, размер буфера: {}", buffer.capacity());
+    }
+
+    @Override
+    public boolean isActive() {
+        return HTTP_LOG.isTraceEnabled();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, String request) {
+        enqueue(request);
+    }
+
+    @Override
+    public void write(Correlation correlation, String response) {
+        enqueue(response);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void enqueue(String message) {
+        if (!buffer.offer(message)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (running) {
+            if (!writeAvailable()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        writeAvailable();
+    }
+
+    private boolean writeAvailable() {
+        boolean any = false;
+        String message;
+        while ((message = buffer.poll()) != null) {
+            HTTP_LOG.trace(message);
+            written.increment();
+            any = true;
+        }
+        return any;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченная неблокирующая очередь на кольцевом буфере: много писателей, один читатель.
+ * Каждая ячейка хранит номер последовательности, по которому писатель понимает, свободна ли она,
+ * а читатель — опубликована ли запись. При заполненном буфере {@link #offer} сразу возвращает false.
+ */
+class LogRingBuffer {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<String> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    LogRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Размер буфера должен быть не меньше 2");
+        }
+        capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        mask = capacity - 1;
+        slots = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(String message) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, message);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Вызывается только из потока-читателя.
+     */
+    String poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        String message = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, head + capacity);
+        head++;
+        return message;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.logging;
+
+import org.zalando.logbook.HttpRequest;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Решает, попадёт ли запрос в HTTP-лог. Доля задаётся по префиксу пути, выбирается самый длинный
+ * подходящий префикс. Условие проверяется до буферизации тела, поэтому невыбранные запросы
+ * ничего не стоят.
+ */
+public class SamplingRequestCondition implements Predicate<HttpRequest> {
+    private final double defaultRate;
+    private final List<Map.Entry<String, Double>> rates;
+
+    public SamplingRequestCondition(double defaultRate, Map<String, Double> ratesByPrefix) {
+        this.defaultRate = defaultRate;
+        this.rates = ratesByPrefix.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, Double> rate) -> rate.getKey().length())
+                        .reversed())
+                .toList();
+    }
+
+    @Override
+    public boolean test(HttpRequest request) {
+        double rate = rateFor(request.getPath());
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    double rateFor(String path) {
+        for (Map.Entry<String, Double> rate : rates) {
+            if (path.startsWith(rate.getKey())) {
+                return rate.getValue();
+            }
+        }
+        return defaultRate;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Списочные выборки, для которых снимаются метрики.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Listing {
+    BOOKINGS_BY_BOOKER("bookings.booker"),
+    BOOKINGS_BY_OWNER("bookings.owner"),
+    ITEMS_BY_OWNER("items.owner"),
+    ITEMS_SEARCH("items.search"),
+    ITEM_COMMENTS("items.comments"),
+    USERS("users");
+
+    private final String tag;
+}
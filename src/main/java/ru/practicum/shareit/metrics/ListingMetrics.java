@@ -0,0 +1,55 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.status.BookingStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Время выборки бронирований по каждой ветке статуса и распределение размеров списочных ответов.
+ * Все метры регистрируются при старте, поэтому на горячем пути нет обращений к реестру.
+ */
+@Component
+public class ListingMetrics {
+    private static final String QUERY_TIMER = "shareit.bookings.query";
+    private static final String RESULT_SIZE = "shareit.listing.size";
+
+    private final Map<Listing, Map<BookingStatus, Timer>> timers = new EnumMap<>(Listing.class);
+    private final Map<Listing, DistributionSummary> sizes = new EnumMap<>(Listing.class);
+
+    public ListingMetrics(MeterRegistry registry) {
+        for (Listing listing : new Listing[]{Listing.BOOKINGS_BY_BOOKER, Listing.BOOKINGS_BY_OWNER}) {
+            Map<BookingStatus, Timer> byStatus = new EnumMap<>(BookingStatus.class);
+            for (BookingStatus status : BookingStatus.values()) {
+                byStatus.put(status, Timer.builder(QUERY_TIMER)
+                        .description("Время выборки страницы бронирований")
+                        .tag("listing", listing.getTag())
+                        .tag("status", status.name())
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+            timers.put(listing, byStatus);
+        }
+        for (Listing listing : Listing.values()) {
+            sizes.put(listing, DistributionSummary.builder(RESULT_SIZE)
+                    .description("Число записей в ответе")
+                    .baseUnit("rows")
+                    .tag("listing", listing.getTag())
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(1000.0)
+                    .register(registry));
+        }
+    }
+
+    public Timer bookingsTimer(Listing listing, BookingStatus status) {
+        return timers.get(listing).get(status);
+    }
+
+    public void recordSize(Listing listing, int size) {
+        sizes.get(listing).record(size);
+    }
+}
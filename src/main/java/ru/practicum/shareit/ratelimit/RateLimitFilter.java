@@ -0,0 +1,104 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Допускает запросы к ограниченным эндпоинтам до того, как они дойдут до репозиториев.
+ * У каждого пользователя из X-Sharer-User-Id своя корзина токенов на правило; корзины хранятся
+ * в ограниченном кэше и удаляются после простоя. Сверх лимита пользователь получает 429,
+ * а при превышении общего числа одновременно выполняемых запросов ответ 503. В обоих случаях
+ * заголовок Retry-After говорит, через сколько секунд повторить запрос. Нечисловой
+ * X-Sharer-User-Id отклоняется с ответом 400.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final List<RateLimitRule> rules;
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final Semaphore inFlight;
+
+    public RateLimitFilter(List<RateLimitRule> rules, int maxInFlight, long maximumSize, Duration idleTimeout) {
+        this.rules = List.copyOf(rules);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int ruleIndex = findRule(request);
+        if (ruleIndex < 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String header = request.getHeader(USER_HEADER);
+        if (header != null) {
+            // Ключ — число, как его прочитает контроллер: "01" и "+1" не должны получать свою корзину
+            Long userId = parseUserId(header);
+            if (userId == null) {
+                response.sendError(HttpStatus.BAD_REQUEST.value());
+                return;
+            }
+            RateLimitRule rule = rules.get(ruleIndex);
+            long now = System.nanoTime();
+            long wait = buckets.get(new BucketKey(ruleIndex, userId), key -> rule.newBucket(now))
+                    .tryAcquire(now);
+            if (wait > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, wait);
+                return;
+            }
+        }
+        if (!inFlight.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private int findRule(HttpServletRequest request) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).matches(request)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Long parseUserId(String header) {
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long waitNanos) throws IOException {
+        long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.sendError(status.value());
+    }
+
+    private record BucketKey(int rule, Long userId) {
+    }
+}
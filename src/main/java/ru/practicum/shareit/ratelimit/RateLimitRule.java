@@ -0,0 +1,22 @@
+package ru.practicum.shareit.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.time.Duration;
+
+/**
+ * Лимит эндпоинта: не больше {@code capacity} запросов одного пользователя за {@code period}.
+ */
+public record RateLimitRule(String method, PathPattern pattern, int capacity, Duration period) {
+
+    public boolean matches(HttpServletRequest request) {
+        return method.equals(request.getMethod())
+                && pattern.matches(PathContainer.parsePath(request.getRequestURI()));
+    }
+
+    public TokenBucket newBucket(long nowNanos) {
+        return new TokenBucket(capacity, period.toNanos() / capacity, nowNanos);
+    }
+}
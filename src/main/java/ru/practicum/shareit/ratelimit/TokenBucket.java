@@ -0,0 +1,39 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок в виде GCRA: вместо числа токенов хранится момент, к которому
+ * корзина снова наполнится, и каждый запрос сдвигает его на время пополнения одного токена.
+ * Запрос проходит, пока этот момент опережает текущее время не больше чем на ёмкость корзины.
+ */
+public class TokenBucket {
+    private final long tokenNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, long tokenNanos, long nowNanos) {
+        this.tokenNanos = tokenNanos;
+        this.burstNanos = tokenNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Забирает токен, если он есть.
+     *
+     * @return 0, если токен выдан, иначе время в наносекундах до появления следующего токена
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + tokenNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
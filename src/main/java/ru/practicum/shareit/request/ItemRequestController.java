@@ -1,12 +1,53 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ItemRequestDto createRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                        @RequestBody ItemRequestDto itemRequestDto) {
+        return itemRequestService.createRequest(userId, itemRequestDto);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ItemRequestDto>> getOwnRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @RequestParam(required = false) Long cursor,
+                                                               @RequestParam(defaultValue = "50") int size) {
+        return toResponse(itemRequestService.getOwnRequests(userId, cursor, size));
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getOtherRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                 @RequestParam(required = false) Long cursor,
+                                                                 @RequestParam(defaultValue = "50") int size) {
+        return toResponse(itemRequestService.getOtherRequests(userId, cursor, size));
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto getRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                     @PathVariable Long requestId) {
+        return itemRequestService.getRequestById(userId, requestId);
+    }
+
+    private ResponseEntity<List<ItemRequestDto>> toResponse(ItemRequestPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getRequests());
+    }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Вещь, добавленная в ответ на запрос.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAnswerDto {
+    private Long id;
+    private String name;
+    private Long ownerId;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemRequestPage {
+    private List<ItemRequestDto> requests;
+    private String nextCursor;
+}
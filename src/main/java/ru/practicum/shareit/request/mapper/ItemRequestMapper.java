@@ -0,0 +1,28 @@
+package ru.practicum.shareit.request.mapper;
+
+import ru.practicum.shareit.item.repository.ItemAnswer;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+public class ItemRequestMapper {
+
+    public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<ItemAnswerDto> items) {
+        return new ItemRequestDto(
+                itemRequest.getId(),
+                itemRequest.getDescription(),
+                itemRequest.getCreated(),
+                items
+        );
+    }
+
+    public static ItemAnswerDto toItemAnswerDto(ItemAnswer answer) {
+        return new ItemAnswerDto(
+                answer.getId(),
+                answer.getName(),
+                answer.getOwnerId()
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+@Repository
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findByRequestorIdAndIdLessThanOrderByIdDesc(Long requestorId, Long beforeId, Limit limit);
+
+    List<ItemRequest> findByRequestorIdNotAndIdLessThanOrderByIdDesc(Long requestorId, Long beforeId, Limit limit);
+}
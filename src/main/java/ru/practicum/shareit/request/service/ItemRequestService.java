@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+
+public interface ItemRequestService {
+
+    ItemRequestDto createRequest(Long userId, ItemRequestDto itemRequestDto);
+
+    ItemRequestPage getOwnRequests(Long userId, Long cursor, int size);
+
+    ItemRequestPage getOtherRequests(Long userId, Long cursor, int size);
+
+    ItemRequestDto getRequestById(Long userId, Long requestId);
+}
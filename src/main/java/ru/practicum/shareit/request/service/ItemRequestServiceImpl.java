@@ -0,0 +1,120 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.ItemRequestNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.repository.ItemAnswer;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.validator.UserIdentityValidator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserIdentityValidator userIdentityValidator;
+
+    @Override
+    @Transactional
+    public ItemRequestDto createRequest(Long userId, ItemRequestDto itemRequestDto) {
+        if (itemRequestDto.getDescription() == null || itemRequestDto.getDescription().isBlank()) {
+            throw new ValidationException("Описание запроса не может быть пустым");
+        }
+        userIdentityValidator.validate(userId, "Пользователь не найден");
+
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setDescription(itemRequestDto.getDescription());
+        itemRequest.setRequestor(userRepository.getReferenceById(userId));
+        itemRequest.setCreated(LocalDateTime.now());
+
+        return ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest), new ArrayList<>());
+    }
+
+    @Override
+    public ItemRequestPage getOwnRequests(Long userId, Long cursor, int size) {
+        userIdentityValidator.validate(userId, "Пользователь не найден");
+
+        List<ItemRequest> requests = itemRequestRepository.findByRequestorIdAndIdLessThanOrderByIdDesc(userId,
+                toBeforeId(cursor), toLimit(size));
+        return toPage(requests, size);
+    }
+
+    @Override
+    public ItemRequestPage getOtherRequests(Long userId, Long cursor, int size) {
+        userIdentityValidator.validate(userId, "Пользователь не найден");
+
+        List<ItemRequest> requests = itemRequestRepository.findByRequestorIdNotAndIdLessThanOrderByIdDesc(userId,
+                toBeforeId(cursor), toLimit(size));
+        return toPage(requests, size);
+    }
+
+    @Override
+    public ItemRequestDto getRequestById(Long userId, Long requestId) {
+        userIdentityValidator.validate(userId, "Пользователь не найден");
+
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new ItemRequestNotFoundException("Запрос не найден"));
+        return toItemRequestDtos(List.of(itemRequest)).get(0);
+    }
+
+    private static Long toBeforeId(Long cursor) {
+        return cursor == null ? Long.MAX_VALUE : cursor;
+    }
+
+    private static Limit toLimit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return Limit.of(size + 1);
+    }
+
+    private ItemRequestPage toPage(List<ItemRequest> requests, int size) {
+        String nextCursor = null;
+        if (requests.size() > size) {
+            requests = requests.subList(0, size);
+            nextCursor = String.valueOf(requests.get(size - 1).getId());
+        }
+        return new ItemRequestPage(toItemRequestDtos(requests), nextCursor);
+    }
+
+    /**
+     * Ответы на все запросы страницы загружаются одним запросом.
+     */
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemAnswerDto>> answersByRequestId = itemRepository.findAnswersByRequestIdIn(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(ItemAnswer::getRequestId,
+                        Collectors.mapping(ItemRequestMapper::toItemAnswerDto, Collectors.toList())));
+
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        answersByRequestId.getOrDefault(request.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+}
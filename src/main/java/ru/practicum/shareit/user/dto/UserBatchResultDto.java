@@ -0,0 +1,14 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBatchResultDto {
+    private int index;
+    private UserDto user;
+    private String error;
+}
@@ -1,13 +1,29 @@
 package ru.practicum.shareit.user.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
 @Repository
 public interface UserRepository extends JpaRepository<User,Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN ?1")
+    Set<String> findEmailsByEmailIn(Collection<String> emails);
 
-    boolean existsByEmail(String email);
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 
-    boolean existsByEmailAndIdNot(String email, Long id);
-}
\ No newline at end of file
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllOrderedById();
+}
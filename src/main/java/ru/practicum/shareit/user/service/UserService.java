@@ -1,18 +1,25 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.user.dto.UserBatchResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPage;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
     UserDto createUser(UserDto userDto);
 
+    List<UserBatchResultDto> createUsers(List<UserDto> userDtos);
+
     UserDto updateUser(Long userId, UserDto userDto);
 
     UserDto getUserById(Long userId);
 
-    List<UserDto> getAllUsers();
+    UserPage getUsers(Long cursor, int size);
+
+    void exportUsers(Consumer<UserDto> sink);
 
     void deleteUser(Long userId);
 }
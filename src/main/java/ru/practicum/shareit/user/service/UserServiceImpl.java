@@ -1,38 +1,120 @@
 package ru.practicum.shareit.user.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.datasource.ReadYourWritesTracker;
+import ru.practicum.shareit.exception.EmailConflictException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.metrics.Listing;
+import ru.practicum.shareit.metrics.ListingMetrics;
+import ru.practicum.shareit.user.dto.UserBatchResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPage;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.validator.EmailValidator;
+import ru.practicum.shareit.user.validator.UserIdentityValidator;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 5_000;
+    private static final String EMAIL_CONSTRAINT = "uq_user_email";
 
     private final UserRepository userRepository;
+    private final UserIdentityValidator userIdentityValidator;
+    private final ListingMetrics listingMetrics;
+    private final EntityManager entityManager;
+    private final ItemBookingSummaryService summaryService;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
 
     @Override
     @Transactional
     public UserDto createUser(UserDto userDto) {
         validateUserData(userDto, true);
 
-        if (userRepository.existsByEmail(userDto.getEmail())) {
-            throw new IllegalArgumentException("Email уже существует");
-        }
-
         User user = UserMapper.toUser(userDto);
-        User savedUser = userRepository.save(user);
+        user.setId(null);
+        User savedUser = saveCheckingEmail(user, "Email уже существует");
         return UserMapper.toUserDto(savedUser);
     }
 
+    /**
+     * Адреса, уже занятые в базе или раньше в этом же запросе, отмечаются в результате строки.
+     * Остальные пользователи вставляются пачками; если адрес успели занять параллельно,
+     * откатывается весь запрос.
+     */
+    @Override
+    @Transactional
+    public List<UserBatchResultDto> createUsers(List<UserDto> userDtos) {
+        if (userDtos == null || userDtos.isEmpty()) {
+            throw new ValidationException("Список пользователей не может быть пустым");
+        }
+        if (userDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("За один запрос можно добавить не более " + MAX_BATCH_SIZE + " пользователей");
+        }
+        Set<String> emails = userDtos.stream()
+                .filter(Objects::nonNull)
+                .map(UserDto::getEmail)
+                .filter(EmailValidator::isValidEmail)
+                .map(String::trim)
+                .collect(Collectors.toSet());
+        Set<String> takenEmails = new HashSet<>(userRepository.findEmailsByEmailIn(emails));
+
+        List<UserBatchResultDto> results = new ArrayList<>(userDtos.size());
+        List<User> users = new ArrayList<>(userDtos.size());
+        List<UserBatchResultDto> created = new ArrayList<>(userDtos.size());
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            UserBatchResultDto result = new UserBatchResultDto(i, null, null);
+            results.add(result);
+            if (userDto == null || userDto.getName() == null || userDto.getName().isBlank()) {
+                result.setError("Имя не должно быть пустым или null");
+                continue;
+            }
+            if (!EmailValidator.isValidEmail(userDto.getEmail())) {
+                result.setError("Email имеет неверный формат");
+                continue;
+            }
+            String email = userDto.getEmail().trim();
+            if (!takenEmails.add(email)) {
+                result.setError("Пользователь с email " + email + " уже существует");
+                continue;
+            }
+            users.add(new User(null, userDto.getName().trim(), email, null));
+            created.add(result);
+        }
+
+        try {
+            userRepository.saveAllAndFlush(users);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new EmailConflictException("Email пользователей заняли во время обработки, повторите запрос");
+            }
+            throw e;
+        }
+        for (int i = 0; i < users.size(); i++) {
+            onUserWritten(users.get(i).getId());
+            created.get(i).setUser(UserMapper.toUserDto(users.get(i)));
+        }
+        return results;
+    }
+
     @Override
     @Transactional
     public UserDto updateUser(Long userId, UserDto userDto) {
@@ -41,22 +123,21 @@ public class UserServiceImpl implements UserService {
 
         if (userDto.getEmail() != null && !userDto.getEmail().equals(existingUser.getEmail())) {
             EmailValidator.validateEmail(userDto.getEmail());
-            String normalizedEmail = userDto.getEmail().trim();
-
-            if (userRepository.existsByEmailAndIdNot(normalizedEmail, userId)) {
-                throw new IllegalArgumentException("Пользователь с таким email уже существует");
-            }
-            existingUser.setEmail(normalizedEmail);
+            existingUser.setEmail(userDto.getEmail().trim());
         }
 
         if (userDto.getName() != null) {
             if (userDto.getName().trim().isEmpty()) {
                 throw new IllegalArgumentException("Имя не может быть пустым");
             }
-            existingUser.setName(userDto.getName().trim());
+            String name = userDto.getName().trim();
+            if (!name.equals(existingUser.getName())) {
+                existingUser.setName(name);
+                summaryService.onCommentAuthorRenamed(userId);
+            }
         }
-        User updatedUser = userRepository.save(existingUser);
-        return UserMapper.toUserDto(existingUser);
+        User updatedUser = saveCheckingEmail(existingUser, "Пользователь с таким email уже существует");
+        return UserMapper.toUserDto(updatedUser);
     }
 
     @Override
@@ -67,16 +148,84 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
+    public UserPage getUsers(Long cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(cursor == null ? 0L : cursor,
+                Limit.of(size + 1));
+        String nextCursor = null;
+        if (users.size() > size) {
+            users = users.subList(0, size);
+            nextCursor = String.valueOf(users.get(size - 1).getId());
+        }
+        listingMetrics.recordSize(Listing.USERS, users.size());
+        List<UserDto> userDtos = users.stream()
                 .map(UserMapper::toUserDto)
                 .collect(Collectors.toList());
+        return new UserPage(userDtos, nextCursor);
+    }
+
+    /**
+     * Пользователи читаются курсором базы окнами по {@link UserRepository#EXPORT_FETCH_SIZE} строк,
+     * а контекст персистентности очищается после каждого окна, поэтому в памяти не копится вся таблица.
+     */
+    @Override
+    public void exportUsers(Consumer<UserDto> sink) {
+        try (Stream<User> users = userRepository.streamAllOrderedById()) {
+            Iterator<User> iterator = users.iterator();
+            int exported = 0;
+            while (iterator.hasNext()) {
+                sink.accept(UserMapper.toUserDto(iterator.next()));
+                if (++exported % UserRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
     @Override
     @Transactional
     public void deleteUser(Long userId) {
         userRepository.deleteById(userId);
+        userIdentityValidator.invalidate(userId);
+        onUserWritten(userId);
+    }
+
+    /**
+     * Уникальность email проверяет ограничение UQ_USER_EMAIL при вставке или обновлении,
+     * без отдельного запроса на существование адреса.
+     */
+    private User saveCheckingEmail(User user, String conflictMessage) {
+        try {
+            User savedUser = userRepository.saveAndFlush(user);
+            onUserWritten(savedUser.getId());
+            return savedUser;
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new EmailConflictException(conflictMessage);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Профиль читают без заголовка X-Sharer-User-Id, поэтому при чтении с реплик запись отмечается
+     * по id пользователя.
+     */
+    private void onUserWritten(Long userId) {
+        readYourWritesTracker.ifAvailable(tracker -> tracker.onUserWritten(userId));
+    }
+
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName() != null
+                        && violation.getConstraintName().toLowerCase().contains(EMAIL_CONSTRAINT);
+            }
+        }
+        return false;
     }
 
     private void validateUserData(UserDto userDto, boolean isCreation) {
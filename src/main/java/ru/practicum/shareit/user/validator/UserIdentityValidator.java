@@ -0,0 +1,74 @@
+package ru.practicum.shareit.user.validator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Проверяет существование пользователя из заголовка X-Sharer-User-Id.
+ * Подтверждённые id хранятся в ограниченном кэше, поэтому повторная проверка не обращается к базе.
+ * <p>
+ * Кэш локален для экземпляра: удаление на другом экземпляре он замечает только по истечении
+ * {@code ttl}, поэтому срок держится коротким. Проверка, начавшаяся до удаления, не возвращает id
+ * в кэш после его сброса: удаление увеличивает поколение, и запись из устаревшего поколения отменяется.
+ */
+@Component
+public class UserIdentityValidator {
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> knownUsers;
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserIdentityValidator(UserRepository userRepository,
+                                 @Value("${shareit.cache.users.maximum-size:100000}") long maximumSize,
+                                 @Value("${shareit.cache.users.ttl:30s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.knownUsers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public void validate(Long userId, String message) {
+        if (userId == null) {
+            throw new UserNotFoundException(message);
+        }
+        if (knownUsers.getIfPresent(userId) != null) {
+            return;
+        }
+        long stamp = generation.get();
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(message);
+        }
+        knownUsers.put(userId, Boolean.TRUE);
+        if (generation.get() != stamp) {
+            // Пока шла проверка, пользователя могли удалить: сброс мог пройти раньше этой записи
+            knownUsers.invalidate(userId);
+        }
+    }
+
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    private void evict(Long userId) {
+        generation.incrementAndGet();
+        knownUsers.invalidate(userId);
+    }
+}
@@ -0,0 +1,3 @@
+-- Последние отзывы к вещи и их страницы: item_id = ? AND id < ? ORDER BY id DESC
+CREATE INDEX IF NOT EXISTS ix_comments_item_id ON comments (item_id, id DESC);
+DROP INDEX IF EXISTS ix_comments_item;
@@ -0,0 +1,12 @@
+-- Страницы бронирований пользователя: booker_id = ? ... ORDER BY start_date DESC, id DESC
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+-- Те же страницы с фильтром WAITING/REJECTED и проверка права на отзыв
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+-- Страницы бронирований собственника: соединение по вещам собственника с сортировкой по началу
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+-- Последнее и следующее одобренное бронирование вещи
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings (item_id, status, start_date);
+-- Вещи собственника постранично по id
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id, id);
+-- Отзывы к вещам
+CREATE INDEX IF NOT EXISTS ix_comments_item ON comments (item_id);
@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS requests (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    description VARCHAR(512) NOT NULL,
+    requestor_id BIGINT NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_request PRIMARY KEY (id),
+    CONSTRAINT fk_requests_to_users FOREIGN KEY (requestor_id) REFERENCES users (id)
+);
+-- Свои запросы пользователя постранично по id
+CREATE INDEX IF NOT EXISTS ix_requests_requestor ON requests (requestor_id, id DESC);
+-- Ответы на запросы страницы: request_id IN (...)
+CREATE INDEX IF NOT EXISTS ix_items_request ON items (request_id);
+ALTER TABLE items ADD CONSTRAINT fk_items_to_requests FOREIGN KEY (request_id) REFERENCES requests (id);
@@ -0,0 +1,36 @@
+CREATE TABLE IF NOT EXISTS item_booking_summaries (
+    item_id BIGINT NOT NULL,
+    last_booking_id BIGINT,
+    last_booking_start TIMESTAMP WITHOUT TIME ZONE,
+    next_booking_id BIGINT,
+    next_booking_start TIMESTAMP WITHOUT TIME ZONE,
+    approved_count BIGINT DEFAULT 0 NOT NULL,
+    last_comment_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id),
+    CONSTRAINT fk_summaries_to_items FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT fk_summaries_to_last_booking FOREIGN KEY (last_booking_id) REFERENCES bookings (id),
+    CONSTRAINT fk_summaries_to_next_booking FOREIGN KEY (next_booking_id) REFERENCES bookings (id)
+);
+-- Поиск сводок, у которых ближайшее бронирование уже началось
+CREATE INDEX IF NOT EXISTS ix_summaries_next_start ON item_booking_summaries (next_booking_start);
+
+-- Заполнение сводок по уже существующим данным
+INSERT INTO item_booking_summaries (item_id, approved_count, last_comment_at)
+SELECT i.id,
+       (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id AND b.status = 'APPROVED'),
+       (SELECT MAX(c.created) FROM comments c WHERE c.item_id = i.id)
+FROM items i;
+
+UPDATE item_booking_summaries SET
+    last_booking_id = (SELECT b.id FROM bookings b
+                       WHERE b.item_id = item_booking_summaries.item_id AND b.status = 'APPROVED'
+                         AND b.start_date < LOCALTIMESTAMP
+                       ORDER BY b.start_date DESC, b.id DESC FETCH FIRST 1 ROWS ONLY),
+    next_booking_id = (SELECT b.id FROM bookings b
+                       WHERE b.item_id = item_booking_summaries.item_id AND b.status = 'APPROVED'
+                         AND b.start_date > LOCALTIMESTAMP
+                       ORDER BY b.start_date, b.id FETCH FIRST 1 ROWS ONLY);
+
+UPDATE item_booking_summaries SET
+    last_booking_start = (SELECT b.start_date FROM bookings b WHERE b.id = item_booking_summaries.last_booking_id),
+    next_booking_start = (SELECT b.start_date FROM bookings b WHERE b.id = item_booking_summaries.next_booking_id);
@@ -0,0 +1,2 @@
+-- Версия строки для оптимистических блокировок при смене статуса
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,4 @@
+-- Версии строк, из которых строятся ETag ответов
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE item_booking_summaries ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,47 @@
+-- btree_gist нужен для сравнения item_id на равенство в GiST-индексе ограничения.
+-- Создание расширения требует прав суперпользователя, а начиная с PostgreSQL 13 (расширение
+-- доверенное) — права CREATE на базу. Если у пользователя миграций их нет, администратор
+-- выполняет CREATE EXTENSION btree_gist заранее, и эта строка ничего не делает.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+DO $$
+DECLARE
+    booking RECORD;
+    rejected INTEGER := 0;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_bookings_item_period') THEN
+        -- Пересекающиеся активные бронирования, накопленные до ограничения, разрешаются жадно:
+        -- одобренные важнее ожидающих, среди равных — более раннее. Бронирование отклоняется,
+        -- только если пересекается с уже оставленным, поэтому цепочки не отклоняются целиком.
+        FOR booking IN
+            SELECT b.id, b.item_id, b.start_date, b.end_date, b.status
+            FROM bookings b
+            WHERE b.status IN ('WAITING', 'APPROVED')
+              AND EXISTS (SELECT 1 FROM bookings o
+                          WHERE o.item_id = b.item_id AND o.id <> b.id
+                            AND o.status IN ('WAITING', 'APPROVED')
+                            AND o.start_date < b.end_date AND o.end_date > b.start_date)
+            ORDER BY b.item_id, b.status = 'APPROVED' DESC, b.id
+        LOOP
+            UPDATE bookings SET status = 'REJECTED'
+            WHERE id = booking.id
+              AND EXISTS (SELECT 1 FROM bookings kept
+                          WHERE kept.item_id = booking.item_id AND kept.id <> booking.id
+                            AND kept.status IN ('WAITING', 'APPROVED')
+                            AND (kept.status = 'APPROVED' AND booking.status = 'WAITING'
+                                 OR kept.status = booking.status AND kept.id < booking.id)
+                            AND kept.start_date < booking.end_date AND kept.end_date > booking.start_date);
+            IF FOUND THEN
+                rejected := rejected + 1;
+            END IF;
+        END LOOP;
+        IF rejected > 0 THEN
+            RAISE NOTICE 'Отклонено пересекающихся бронирований: %', rejected;
+        END IF;
+
+        ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_period EXCLUDE USING gist (
+            item_id WITH =,
+            tsrange(start_date, end_date) WITH &&
+        ) WHERE (status IN ('WAITING', 'APPROVED'));
+    END IF;
+END
+$$;
@@ -0,0 +1,113 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.exception.AccessDeniedException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingApprovalTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingService bookingService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser();
+        booker = createUser();
+        item = itemRepository.save(new Item(null, "item", "description", true, owner, null, null));
+        start = LocalDateTime.now().plusDays(1);
+    }
+
+    @Test
+    void bookingIsDecidedOnlyOnce() {
+        Booking booking = book();
+
+        bookingService.updateBookingStatus(owner.getId(), booking.getId(), true);
+        assertThrows(AccessDeniedException.class,
+                () -> bookingService.updateBookingStatus(owner.getId(), booking.getId(), false));
+        assertThrows(AccessDeniedException.class,
+                () -> bookingService.updateBookingStatus(booker.getId(), book().getId(), true));
+
+        Booking decided = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, decided.getStatus());
+        assertEquals(booking.getVersion() + 1, decided.getVersion());
+    }
+
+    @Test
+    void batchReportsResultPerBooking() {
+        Booking approved = book();
+        Booking rejected = book();
+        Booking decided = book();
+        bookingService.updateBookingStatus(owner.getId(), decided.getId(), true);
+        Item foreignItem = itemRepository.save(new Item(null, "item", "description", true, createUser(),
+                null, null));
+        Booking foreign = bookingRepository.save(new Booking(null, start, start.plusHours(1), foreignItem, booker,
+                BookingStatus.WAITING, null));
+
+        List<BookingBatchResultDto> results = bookingService.updateBookingStatuses(owner.getId(), Arrays.asList(
+                new BookingDecisionDto(approved.getId(), true),
+                new BookingDecisionDto(rejected.getId(), false),
+                new BookingDecisionDto(approved.getId(), false),
+                new BookingDecisionDto(decided.getId(), false),
+                new BookingDecisionDto(foreign.getId(), true),
+                new BookingDecisionDto(-1L, true),
+                new BookingDecisionDto(approved.getId(), null)));
+
+        assertEquals(7, results.size());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getBooking().getStatus());
+        assertEquals(BookingStatus.REJECTED, results.get(1).getBooking().getStatus());
+        for (BookingBatchResultDto result : results.subList(2, results.size())) {
+            assertNull(result.getBooking());
+            assertNotNull(result.getError());
+        }
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(approved.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(rejected.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(decided.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(foreign.getId()).orElseThrow().getStatus());
+    }
+
+    private Booking book() {
+        start = start.plusDays(1);
+        return bookingRepository.save(new Booking(null, start, start.plusHours(1), item, booker,
+                BookingStatus.WAITING, null));
+    }
+
+    private User createUser() {
+        return userRepository.save(new User(null, "user", UUID.randomUUID() + "@mail.ru", null));
+    }
+}
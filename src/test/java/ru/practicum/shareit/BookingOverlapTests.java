@@ -0,0 +1,207 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.availability.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пересечения ищутся и среди пересекающихся между собой бронирований, созданных до ограничения,
+ * одновременные бронирования одного периода проходят по одному, а блокировка вещи не задерживает
+ * чтение её занятости и бронирования других вещей.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingOverlapTests {
+    private static final int CONCURRENT_BOOKINGS = 8;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingAvailabilityIndex availabilityIndex;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User booker;
+    private Item item;
+    private LocalDateTime day;
+
+    @BeforeEach
+    void setUp() {
+        booker = createUser();
+        item = itemRepository.save(new Item(null, "item", "description", true, createUser(), null, null));
+        day = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void legacyOverlappingBookingsAreAllChecked() {
+        save(day(1), day(10), BookingStatus.APPROVED);
+        save(day(1), day(2), BookingStatus.WAITING);
+        save(day(2), day(3), BookingStatus.WAITING);
+
+        assertThrows(BookingConflictException.class, () -> book(day(4), day(5)));
+        assertThrows(BookingConflictException.class, () -> book(day(9), day(11)));
+        assertThrows(BookingConflictException.class, () -> book(day(0), day(20)));
+        assertNotNull(book(day(10), day(11)));
+        assertNotNull(book(day(0), day(1)));
+    }
+
+    @Test
+    void sameStartAndContainedIntervalsConflict() {
+        book(day(1), day(3));
+        assertThrows(BookingConflictException.class, () -> book(day(1), day(2)));
+        assertThrows(BookingConflictException.class, () -> book(day(1), day(5)));
+        assertThrows(BookingConflictException.class, () -> book(day(2).minusHours(1), day(2)));
+        assertNotNull(book(day(3), day(4)));
+    }
+
+    @Test
+    void bookingRejectedElsewhereFreesPeriod() {
+        Long bookingId = book(day(1), day(2));
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        booking.setStatus(BookingStatus.REJECTED);
+        bookingRepository.save(booking);
+
+        assertNotNull(book(day(1), day(2)));
+    }
+
+    @Test
+    void concurrentBookingsOfOnePeriodSucceedOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_BOOKINGS);
+        CountDownLatch ready = new CountDownLatch(CONCURRENT_BOOKINGS);
+        List<Future<Long>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_BOOKINGS; i++) {
+                LocalDateTime start = day(1).plusHours(i);
+                Callable<Long> attempt = () -> {
+                    ready.countDown();
+                    ready.await();
+                    return book(start, day(2));
+                };
+                results.add(executor.submit(attempt));
+            }
+            int created = 0;
+            for (Future<Long> result : results) {
+                try {
+                    result.get();
+                    created++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(BookingConflictException.class, e.getCause());
+                }
+            }
+            assertEquals(1, created);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void lockedItemDelaysNeitherReadsNorOtherItems() throws Exception {
+        Item neighbour = createItemInSameStripe();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> {
+                        availabilityIndex.lock(item.getId());
+                        locked.countDown();
+                        awaitQuietly(release);
+                    }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                itemService.getAvailability(item.getId(), day(0), day(10));
+                assertNotNull(book(neighbour, day(1), day(2)));
+            });
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Вещь, которая раньше делила бы с {@code item} одну из 64 полос блокировок.
+     */
+    private Item createItemInSameStripe() {
+        while (true) {
+            Item candidate = itemRepository.save(new Item(null, "item", "description", true, createUser(), null, null));
+            if ((candidate.getId() - item.getId()) % 64 == 0) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private LocalDateTime day(int days) {
+        return day.plusDays(days);
+    }
+
+    private Long book(LocalDateTime start, LocalDateTime end) {
+        return book(item, start, end);
+    }
+
+    private Long book(Item target, LocalDateTime start, LocalDateTime end) {
+        return bookingService.createBooking(booker.getId(), new BookingCreateDto(start, end, target.getId())).getId();
+    }
+
+    private void save(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        bookingRepository.save(new Booking(null, start, end, item, booker, status, null));
+    }
+
+    private User createUser() {
+        return userRepository.save(new User(null, "user", UUID.randomUUID() + "@mail.ru", null));
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.config.ConnectionPoolLimitFilter;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionPoolLimitTests {
+
+    @Test
+    void asyncRequestHoldsPermitUntilCompletion() throws Exception {
+        ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(1, Duration.ofMillis(10));
+        MockHttpServletRequest export = new MockHttpServletRequest("GET", "/bookings/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        assertEquals(503, call(filter).getStatus());
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+        assertEquals(200, call(filter).getStatus());
+        assertEquals(200, call(filter).getStatus());
+    }
+
+    private static MockHttpServletResponse call(ConnectionPoolLimitFilter filter) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/bookings"), response, (request, ignored) -> {
+        });
+        return response;
+    }
+}
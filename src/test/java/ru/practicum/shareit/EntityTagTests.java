@@ -0,0 +1,150 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCard;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.summary.ItemBookingSummary;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ETag должен меняться вместе с любыми данными ответа и не меняться без них.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class EntityTagTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserService userService;
+
+    private User owner;
+    private User booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser();
+        booker = createUser();
+        item = itemService.createItem(owner.getId(), new ItemDto(null, "item", "description", true, null));
+    }
+
+    @Test
+    void itemTagFollowsItemAndCommentAuthors() {
+        String created = itemService.getItemTag(item.getId());
+        assertEquals(created, itemService.getItemTag(item.getId()));
+
+        itemService.updateItem(owner.getId(), item.getId(), new ItemDto(null, "renamed", null, null, null));
+        String renamed = itemService.getItemTag(item.getId());
+        assertNotEquals(created, renamed);
+
+        Booking booking = book(LocalDateTime.now().minusDays(2));
+        bookingService.updateBookingStatus(owner.getId(), booking.getId(), true);
+        itemService.addComment(booker.getId(), item.getId(), new CommentDto(null, "ok", null, null));
+        String commented = itemService.getItemTag(item.getId());
+        assertNotEquals(renamed, commented);
+
+        assertEquals(commented, itemService.getItemCard(item.getId(), commented).getTag());
+        assertEquals("user", itemService.getItemById(item.getId()).getComments().get(0).getAuthorName());
+
+        userService.updateUser(booker.getId(), new UserDto(null, "author", null));
+        ItemCard card = itemService.getItemCard(item.getId(), itemService.getItemTag(item.getId()));
+        assertNotEquals(commented, card.getTag());
+        assertEquals(itemService.getItemTag(item.getId()), card.getTag());
+        assertEquals("author", card.getItem().getComments().get(0).getAuthorName());
+        assertNull(itemService.getItemTag(-1L));
+    }
+
+    @Test
+    void unchangedItemIsNotAssembled() {
+        ItemService service = mock(ItemService.class);
+        when(service.getItemTag(1L)).thenReturn("\"item-1\"");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"item-1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(new ItemController(service).getItem(1L, new ServletWebRequest(request, response)));
+        assertEquals(304, response.getStatus());
+        verify(service, never()).getItemCard(anyLong(), anyString());
+    }
+
+    @Test
+    void bookingTagIsGivenOnlyToParticipants() {
+        Booking booking = book(LocalDateTime.now().plusDays(1));
+        String waiting = bookingService.getBookingTag(booker.getId(), booking.getId());
+
+        assertEquals(waiting, bookingService.getBookingTag(owner.getId(), booking.getId()));
+        assertNull(bookingService.getBookingTag(createUser().getId(), booking.getId()));
+
+        bookingService.updateBookingStatus(owner.getId(), booking.getId(), true);
+        assertNotEquals(waiting, bookingService.getBookingTag(booker.getId(), booking.getId()));
+    }
+
+    @Test
+    void ownerListHasNoTagWhileSummaryIsStale() {
+        Booking booking = book(LocalDateTime.now().plusDays(1));
+        String beforeApproval = itemService.getItemsByOwnerTag(owner.getId(), null, 50);
+        assertNotNull(beforeApproval);
+
+        bookingService.updateBookingStatus(owner.getId(), booking.getId(), true);
+        assertNotEquals(beforeApproval, itemService.getItemsByOwnerTag(owner.getId(), null, 50));
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        summary.setNextBookingStart(LocalDateTime.now().minusMinutes(1));
+        summaryRepository.save(summary);
+        assertNull(itemService.getItemsByOwnerTag(owner.getId(), null, 50));
+    }
+
+    private Booking book(LocalDateTime start) {
+        return bookingRepository.save(new Booking(null, start, start.plusDays(1),
+                itemRepository.findById(item.getId()).orElseThrow(), booker, BookingStatus.WAITING, null));
+    }
+
+    private User createUser() {
+        return userRepository.save(new User(null, "user", UUID.randomUUID() + "@mail.ru", null));
+    }
+}
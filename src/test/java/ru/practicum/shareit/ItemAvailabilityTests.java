@@ -0,0 +1,105 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.TimeRangeDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Занятые интервалы сливаются и обрезаются по границам запроса, свободные их дополняют.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemAvailabilityTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemService itemService;
+
+    private User booker;
+    private Item item;
+    private LocalDateTime day;
+
+    @BeforeEach
+    void setUp() {
+        booker = createUser();
+        item = itemRepository.save(new Item(null, "item", "description", true, createUser(), null, null));
+        day = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void overlappingAndAdjacentIntervalsMerge() {
+        save(day(1), day(3), BookingStatus.APPROVED);
+        save(day(2), day(4), BookingStatus.WAITING);
+        save(day(4), day(5), BookingStatus.APPROVED);
+        save(day(7), day(8), BookingStatus.WAITING);
+
+        ItemAvailabilityDto availability = itemService.getAvailability(item.getId(), day(0), day(10));
+
+        assertEquals(List.of(range(1, 5), range(7, 8)), availability.getBusy());
+        assertEquals(List.of(range(0, 1), range(5, 7), range(8, 10)), availability.getFree());
+    }
+
+    @Test
+    void containedIntervalDoesNotShrinkBusy() {
+        save(day(1), day(6), BookingStatus.APPROVED);
+        save(day(2), day(3), BookingStatus.WAITING);
+        save(day(4), day(5), BookingStatus.WAITING);
+
+        ItemAvailabilityDto availability = itemService.getAvailability(item.getId(), day(0), day(10));
+
+        assertEquals(List.of(range(1, 6)), availability.getBusy());
+        assertEquals(List.of(range(0, 1), range(6, 10)), availability.getFree());
+    }
+
+    @Test
+    void intervalsAreClippedToPeriod() {
+        save(day(0), day(3), BookingStatus.APPROVED);
+        save(day(8), day(12), BookingStatus.WAITING);
+        save(day(12), day(13), BookingStatus.WAITING);
+        save(day(4), day(5), BookingStatus.REJECTED);
+
+        ItemAvailabilityDto availability = itemService.getAvailability(item.getId(), day(2), day(10));
+
+        assertEquals(List.of(range(2, 3), range(8, 10)), availability.getBusy());
+        assertEquals(List.of(range(3, 8)), availability.getFree());
+    }
+
+    private TimeRangeDto range(int from, int to) {
+        return new TimeRangeDto(day(from), day(to));
+    }
+
+    private LocalDateTime day(int days) {
+        return day.plusDays(days);
+    }
+
+    private void save(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        bookingRepository.save(new Booking(null, start, end, item, booker, status, null));
+    }
+
+    private User createUser() {
+        return userRepository.save(new User(null, "user", UUID.randomUUID() + "@mail.ru", null));
+    }
+}
@@ -0,0 +1,191 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пакетное создание вещей: число обращений к базе не зависит от размера пакета сверх пачек
+ * JDBC по 50 строк, а ошибка в строке не мешает остальным.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:item-batches")
+class ItemBatchTests {
+    private static final List<Execution> EXECUTIONS = new CopyOnWriteArrayList<>();
+    private static final int ITEMS = 120;
+    private static final int JDBC_BATCH = 50;
+    private static final int SEQUENCE_ALLOCATION = 50;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemService itemService;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner", UUID.randomUUID() + "@mail.ru", null));
+    }
+
+    @Test
+    void batchUsesConstantQueriesAndJdbcBatches() {
+        ItemRequest request = itemRequestRepository.save(new ItemRequest(null, "request", owner, LocalDateTime.now()));
+        List<ItemDto> dtos = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            dtos.add(new ItemDto(null, "item " + i, "description", true, i % 2 == 0 ? request.getId() : null));
+        }
+
+        EXECUTIONS.clear();
+        List<ItemBatchResultDto> results = itemService.createItems(owner.getId(), dtos);
+
+        Set<Long> ids = new HashSet<>();
+        for (ItemBatchResultDto result : results) {
+            assertNull(result.getError());
+            ids.add(result.getItem().getId());
+        }
+        assertEquals(ITEMS, ids.size());
+        assertEquals(ITEMS, itemRepository.findAllById(ids).size());
+
+        int rowBatches = (ITEMS + JDBC_BATCH - 1) / JDBC_BATCH;
+        assertEquals(rowBatches, count("executeBatch", "insert into items"));
+        assertEquals(rowBatches, count("executeBatch", "insert into item_booking_summaries"));
+        assertEquals(0, count("executeUpdate", "insert into"));
+        assertEquals(1, count("executeQuery", "from requests"));
+        assertTrue(count("executeQuery", "items_seq") <= (ITEMS + SEQUENCE_ALLOCATION - 1) / SEQUENCE_ALLOCATION + 1,
+                EXECUTIONS::toString);
+    }
+
+    @Test
+    void batchReportsResultPerItem() {
+        Long existingId = itemService.createItem(owner.getId(),
+                new ItemDto(null, "existing", "description", true, null)).getId();
+        List<ItemBatchResultDto> results = itemService.createItems(owner.getId(), Arrays.asList(
+                new ItemDto(null, "drill", "description", true, null),
+                new ItemDto(null, " ", "description", true, null),
+                null,
+                new ItemDto(null, "saw", "description", null, null),
+                new ItemDto(null, "ladder", "description", true, -1L),
+                new ItemDto(existingId, "hammer", "description", false, null)));
+
+        assertEquals(6, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertNotNull(results.get(0).getItem());
+        assertNull(results.get(0).getError());
+        for (ItemBatchResultDto result : results.subList(1, 5)) {
+            assertNull(result.getItem());
+            assertNotNull(result.getError());
+        }
+        assertTrue(results.get(4).getError().contains("-1"));
+        assertNotEquals(existingId, results.get(5).getItem().getId());
+        assertEquals("existing", itemRepository.findById(existingId).orElseThrow().getName());
+        assertEquals("drill", itemRepository.findById(results.get(0).getItem().getId()).orElseThrow().getName());
+    }
+
+    private static long count(String method, String sqlPart) {
+        return EXECUTIONS.stream()
+                .filter(execution -> execution.method().equals(method)
+                        && execution.sql().toLowerCase(Locale.ROOT).contains(sqlPart))
+                .count();
+    }
+
+    private record Execution(String method, String sql) {
+    }
+
+    /**
+     * Запоминает каждый выполненный PreparedStatement и способ выполнения: отдельно или пачкой.
+     */
+    @TestConfiguration
+    static class ExecutionCaptureConfig {
+
+        @Bean
+        static BeanPostProcessor executionCapture() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CapturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static class CapturingDataSource extends DelegatingDataSource {
+
+        CapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(method, connection, args);
+                        return method.getName().equals("prepareStatement")
+                                && result instanceof PreparedStatement statement
+                                ? capture(statement, (String) args[0]) : result;
+                    });
+        }
+
+        private static PreparedStatement capture(PreparedStatement statement, String sql) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute") && (args == null || args.length == 0)) {
+                            EXECUTIONS.add(new Execution(method.getName(), sql));
+                        }
+                        return invoke(method, statement, args);
+                    });
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
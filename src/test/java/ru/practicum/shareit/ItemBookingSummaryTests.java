@@ -0,0 +1,134 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.summary.ItemBookingSummary;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Сводка, которую поддерживают одобрения и комментарии, должна совпадать с полным
+ * пересчётом по бронированиям.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemBookingSummaryTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser();
+        booker = createUser();
+        ItemDto itemDto = itemService.createItem(owner.getId(), new ItemDto(null, "item", "description", true, null));
+        item = itemRepository.findById(itemDto.getId()).orElseThrow();
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void approvalsAndCommentsMatchRebuild() {
+        Booking past = approve(now.minusDays(3));
+        approve(now.plusDays(5));
+        Booking next = approve(now.plusDays(2));
+        book(now.plusDays(8));
+        itemService.addComment(booker.getId(), item.getId(), new CommentDto(null, "ok", null, null));
+
+        ItemWithBookingDto dto = findOwnItem();
+        assertEquals(past.getId(), dto.getLastBooking().getId());
+        assertEquals(next.getId(), dto.getNextBooking().getId());
+        assertEquals(3L, dto.getApprovedBookingCount());
+        assertNotNull(dto.getLastCommentAt());
+
+        ItemBookingSummary maintained = summaryRepository.findById(item.getId()).orElseThrow();
+        summaryService.rebuildAll();
+        ItemBookingSummary rebuilt = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(maintained.getLastBookingStart(), rebuilt.getLastBookingStart());
+        assertEquals(maintained.getNextBookingStart(), rebuilt.getNextBookingStart());
+        assertEquals(maintained.getApprovedCount(), rebuilt.getApprovedCount());
+        assertEquals(maintained.getLastCommentAt(), rebuilt.getLastCommentAt());
+    }
+
+    @Test
+    void startedNextBookingBecomesLast() {
+        Booking booking = approve(now.plusDays(1));
+        // Время «прошло»: бронирование уже началось, а сводка ещё не пересчитана
+        booking.setStart(now.minusHours(1));
+        bookingRepository.save(booking);
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        summary.setNextBookingStart(booking.getStart());
+        summaryRepository.save(summary);
+
+        ItemWithBookingDto dto = findOwnItem();
+        assertEquals(booking.getId(), dto.getLastBooking().getId());
+        assertNull(dto.getNextBooking());
+
+        summaryService.rollover();
+        summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertNotNull(summary.getLastBookingStart());
+        assertEquals(booking.getStart(), summary.getLastBookingStart());
+        assertNull(summary.getNextBookingStart());
+    }
+
+    private ItemWithBookingDto findOwnItem() {
+        return itemService.getItemsByOwner(owner.getId(), null, 50).getItems().stream()
+                .filter(dto -> dto.getId().equals(item.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Booking approve(LocalDateTime start) {
+        Booking booking = book(start);
+        bookingService.updateBookingStatus(owner.getId(), booking.getId(), true);
+        return bookingRepository.findById(booking.getId()).orElseThrow();
+    }
+
+    private Booking book(LocalDateTime start) {
+        return bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker,
+                BookingStatus.WAITING, null));
+    }
+
+    private User createUser() {
+        return userRepository.save(new User(null, "user", UUID.randomUUID() + "@mail.ru", null));
+    }
+}
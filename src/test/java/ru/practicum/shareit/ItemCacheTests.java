@@ -0,0 +1,124 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCard;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Карточка вещи берётся из кэша, пока вещь и её отзывы не меняются, и вытесняется
+ * изменением вещи и новым отзывом.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemCacheTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User owner;
+    private User booker;
+    private Long itemId;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser();
+        booker = createUser();
+        itemId = itemService.createItem(owner.getId(), new ItemDto(null, "item", "description", true, null)).getId();
+        cache = cacheManager.getCache(CacheConfig.ITEMS);
+    }
+
+    @Test
+    void unchangedItemIsServedFromCache() {
+        itemService.getItemById(itemId);
+        ItemCard cached = cache.get(itemId, ItemCard.class);
+        assertNotNull(cached);
+
+        ItemWithBookingDto marked = new ItemWithBookingDto();
+        marked.setName("cached");
+        marked.setComments(new ArrayList<>());
+        cache.put(itemId, new ItemCard(cached.getTag(), marked));
+        assertEquals("cached", itemService.getItemById(itemId).getName());
+    }
+
+    @Test
+    void updateEvictsCard() {
+        itemService.getItemById(itemId);
+        assertNotNull(cache.get(itemId, ItemCard.class));
+
+        itemService.updateItem(owner.getId(), itemId, new ItemDto(null, "renamed", null, null, null));
+        assertNull(cache.get(itemId, ItemCard.class));
+        assertEquals("renamed", itemService.getItemById(itemId).getName());
+    }
+
+    @Test
+    void commentEvictsCard() {
+        bookingRepository.save(new Booking(null, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                itemRepository.findById(itemId).orElseThrow(), booker, BookingStatus.APPROVED, null));
+        itemService.getItemById(itemId);
+        assertNotNull(cache.get(itemId, ItemCard.class));
+
+        itemService.addComment(booker.getId(), itemId, new CommentDto(null, "ok", null, null));
+        assertNull(cache.get(itemId, ItemCard.class));
+        ItemWithBookingDto item = itemService.getItemById(itemId);
+        assertEquals(1L, item.getCommentCount());
+        assertEquals("ok", item.getComments().get(0).getText());
+    }
+
+    @Test
+    void disabledCacheKeepsNothing() {
+        new ApplicationContextRunner()
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(CacheConfig.class)
+                .withPropertyValues("shareit.cache.items.enabled=false")
+                .run(context -> {
+                    CacheManager disabled = context.getBean(CacheManager.class);
+                    assertInstanceOf(NoOpCacheManager.class, disabled);
+
+                    Cache items = disabled.getCache(CacheConfig.ITEMS);
+                    items.put(itemId, new ItemCard("tag", new ItemWithBookingDto()));
+                    assertNull(items.get(itemId));
+                });
+    }
+
+    private User createUser() {
+        return userRepository.save(new User(null, "user", UUID.randomUUID() + "@mail.ru", null));
+    }
+}
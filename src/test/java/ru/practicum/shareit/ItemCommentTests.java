@@ -0,0 +1,101 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentPage;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Карточка вещи несёт только последние отзывы и их общее число, остальные читаются постранично.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemCommentTests {
+    private static final int COMMENTS = 12;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemService itemService;
+
+    private User owner;
+    private Item item;
+    private Item silentItem;
+    private List<Long> commentIds;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser();
+        item = itemRepository.save(new Item(null, "item", "description", true, owner, null, null));
+        silentItem = itemRepository.save(new Item(null, "item", "description", true, owner, null, null));
+        commentIds = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            User author = userRepository.save(new User(null, "author" + i, UUID.randomUUID() + "@mail.ru", null));
+            commentIds.add(commentRepository.save(new Comment(null, "comment" + i, item, author,
+                    LocalDateTime.now())).getId());
+        }
+    }
+
+    @Test
+    void itemCarriesRecentCommentsAndCount() {
+        ItemWithBookingDto dto = itemService.getItemById(item.getId());
+        assertEquals(COMMENTS, dto.getCommentCount());
+        assertEquals(10, dto.getComments().size());
+        assertEquals(commentIds.get(COMMENTS - 1), dto.getComments().get(0).getId());
+        assertEquals("author" + (COMMENTS - 1), dto.getComments().get(0).getAuthorName());
+
+        List<ItemWithBookingDto> owned = itemService.getItemsByOwner(owner.getId(), null, 50).getItems();
+        assertEquals(COMMENTS, owned.get(0).getCommentCount());
+        assertEquals(dto.getComments(), owned.get(0).getComments());
+        assertEquals(0L, owned.get(1).getCommentCount());
+        assertTrue(owned.get(1).getComments().isEmpty());
+    }
+
+    @Test
+    void commentsArePagedFromNewest() {
+        List<Long> pagedIds = new ArrayList<>();
+        Long cursor = null;
+        do {
+            CommentPage page = itemService.getComments(item.getId(), cursor, 5);
+            page.getComments().stream().map(CommentDto::getId).forEach(pagedIds::add);
+            cursor = page.getNextCursor() == null ? null : Long.valueOf(page.getNextCursor());
+        } while (cursor != null);
+
+        Collections.reverse(pagedIds);
+        assertEquals(commentIds, pagedIds);
+        assertTrue(itemService.getComments(silentItem.getId(), null, 5).getComments().isEmpty());
+        assertNull(itemService.getComments(silentItem.getId(), null, 5).getNextCursor());
+        assertThrows(ItemNotFoundException.class, () -> itemService.getComments(-1L, null, 5));
+    }
+
+    private User createUser() {
+        return userRepository.save(new User(null, "user", UUID.randomUUID() + "@mail.ru", null));
+    }
+}
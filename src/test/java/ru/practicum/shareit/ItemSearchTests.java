@@ -0,0 +1,100 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Поисковый индекс отвечает так же, как SQL-поиск, и не откатывается к устаревшему снимку.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemSearchTests {
+    private static final List<String> QUERIES = List.of(
+            "дрель", "ДРЕЛЬ", "ДрЕлЬ", "рел", "ель", "др", "д", "аккумулятор", "ударная", "дрель уд",
+            "Шуруповёрт", "ПОВЁР", "ladder", "LAD", "dd", "er", "лестница", "нет такого");
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner", UUID.randomUUID() + "@mail.ru", null));
+    }
+
+    @Test
+    void indexReturnsSameItemsAsRepository() {
+        Set<Long> created = new HashSet<>();
+        created.add(create("Дрель", "Ударная дрель с аккумулятором", true));
+        created.add(create("ДРЕЛЬ", "старая", true));
+        created.add(create("Сломанная дрель", "не работает", false));
+        created.add(create("Шуруповёрт", "почти дрель", true));
+        created.add(create("Ladder", "Лестница-стремянка", true));
+        created.add(create("стремянка", "ladder", false));
+        Long hidden = create("Дрелька", "маленькая", true);
+        created.add(hidden);
+        itemService.updateItem(owner.getId(), hidden, new ItemDto(null, null, null, false, null));
+        Long shown = create("Лестница", "длинная", false);
+        created.add(shown);
+        itemService.updateItem(owner.getId(), shown, new ItemDto(null, null, null, true, null));
+
+        assertTrue(itemSearchIndex.canServe("дрель"));
+        for (String query : QUERIES) {
+            assertEquals(ids(itemRepository.search(query), created), ids(itemSearchIndex.search(query), created),
+                    query);
+        }
+    }
+
+    @Test
+    void buildSnapshotDoesNotOverwriteNewerItem() {
+        ItemRepository repository = mock(ItemRepository.class);
+        ItemSearchIndex index = new ItemSearchIndex(repository, true);
+        index.onItemSaved(new Item(1L, "Дрель", "ударная", false, null, null, 2L));
+        when(repository.findAll()).thenReturn(List.of(new Item(1L, "Дрель", "ударная", true, null, null, 1L)));
+
+        index.build();
+
+        assertTrue(index.search("дрель").isEmpty());
+    }
+
+    private Long create(String name, String description, boolean available) {
+        return itemService.createItem(owner.getId(), new ItemDto(null, name, description, available, null)).getId();
+    }
+
+    private static Set<Long> ids(List<Item> items, Set<Long> created) {
+        Set<Long> ids = new HashSet<>();
+        for (Item item : items) {
+            if (created.contains(item.getId())) {
+                ids.add(item.getId());
+            }
+        }
+        return ids;
+    }
+}
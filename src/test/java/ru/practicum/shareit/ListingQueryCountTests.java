@@ -0,0 +1,134 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ListingQueryCountTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User smallOwner;
+    private User largeOwner;
+    private User smallBooker;
+    private User largeBooker;
+    private Item smallItem;
+    private Item largeItem;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        smallOwner = createUser();
+        largeOwner = createUser();
+        smallBooker = createUser();
+        largeBooker = createUser();
+        smallItem = seed(smallOwner, smallBooker, 1);
+        for (int i = 0; i < 9; i++) {
+            largeItem = seed(largeOwner, createUser(), 4);
+        }
+        seed(largeOwner, largeBooker, 4);
+        summaryService.rebuildAll();
+    }
+
+    @Test
+    void bookingsByOwnerRunConstantStatements() {
+        for (BookingStatus status : BookingStatus.values()) {
+            if (status == BookingStatus.APPROVED) {
+                continue;
+            }
+            assertEquals(
+                    countStatements(() -> bookingService.getBookingsByOwner(smallOwner.getId(), status, null, 50)),
+                    countStatements(() -> bookingService.getBookingsByOwner(largeOwner.getId(), status, null, 50)),
+                    status.name());
+        }
+    }
+
+    @Test
+    void bookingsByUserRunConstantStatements() {
+        for (BookingStatus status : BookingStatus.values()) {
+            if (status == BookingStatus.APPROVED) {
+                continue;
+            }
+            assertEquals(
+                    countStatements(() -> bookingService.getBookingsByUser(smallBooker.getId(), status, null, 50)),
+                    countStatements(() -> bookingService.getBookingsByUser(largeBooker.getId(), status, null, 50)),
+                    status.name());
+        }
+    }
+
+    @Test
+    void itemsByOwnerRunConstantStatements() {
+        assertEquals(
+                countStatements(() -> itemService.getItemsByOwner(smallOwner.getId(), null, 50)),
+                countStatements(() -> itemService.getItemsByOwner(largeOwner.getId(), null, 50)));
+    }
+
+    @Test
+    void itemByIdRunsConstantStatements() {
+        assertEquals(
+                countStatements(() -> itemService.getItemById(smallItem.getId())),
+                countStatements(() -> itemService.getItemById(largeItem.getId())));
+    }
+
+    private long countStatements(Supplier<?> call) {
+        statistics.clear();
+        call.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User createUser() {
+        return userRepository.save(new User(null, "user", UUID.randomUUID() + "@mail.ru", null));
+    }
+
+    private Item seed(User owner, User booker, int bookings) {
+        Item item = itemRepository.save(new Item(null, "item", "description", true, owner, null, null));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < bookings; i++) {
+            LocalDateTime start = now.plusDays(i * 2L - bookings);
+            bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker, BookingStatus.APPROVED, null));
+            commentRepository.save(new Comment(null, "comment", item, createUser(), now));
+        }
+        return item;
+    }
+}
@@ -0,0 +1,271 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.status.BookingStatus;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет по EXPLAIN в H2, что горячие запросы репозиториев читают таблицы по нужному индексу.
+ * Запрос выполняется настоящим методом репозитория, а EXPLAIN строится по SQL и параметрам,
+ * которые Hibernate отправил в пул соединений, поэтому тест следит за изменениями JPQL и маппинга.
+ * H2 сам индексирует каждый внешний ключ, и при равенстве только по нему стоимость с составным индексом
+ * одинакова. В таких случаях ожидается индекс внешнего ключа: его имя — имя ограничения с суффиксом,
+ * который генерирует H2.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query-plans")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTests {
+    private static final List<CapturedStatement> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final Limit PAGE = Limit.of(51);
+    /**
+     * H2 называет индексы первичных ключей PRIMARY_KEY с произвольным суффиксом.
+     */
+    private static final String PRIMARY_KEY = "PRIMARY_KEY";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    /**
+     * Без статистики по заполненным таблицам H2 не отличает составные индексы от индексов внешних ключей.
+     */
+    @BeforeAll
+    void fillTables() {
+        jdbcTemplate.update("INSERT INTO users (name, email) "
+                + "SELECT 'user', 'plan' || X || '@mail.ru' FROM SYSTEM_RANGE(1, 200)");
+        jdbcTemplate.update("INSERT INTO requests (description, requestor_id, created) "
+                + "SELECT 'request', 1 + MOD(X, 200), CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 500)");
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id, request_id) "
+                + "SELECT X, 'item', 'description', TRUE, 1 + MOD(X, 200), "
+                + "CASE WHEN MOD(X, 2) = 0 THEN 1 + MOD(X, 500) END FROM SYSTEM_RANGE(1, 1000)");
+        jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                + "SELECT DATEADD('HOUR', X, TIMESTAMP '2020-01-01 00:00:00'), "
+                + "DATEADD('HOUR', X + 1, TIMESTAMP '2020-01-01 00:00:00'), 1 + MOD(X, 1000), 1 + MOD(X, 200), "
+                + "CASE MOD(X, 4) WHEN 0 THEN 'WAITING' WHEN 1 THEN 'REJECTED' ELSE 'APPROVED' END "
+                + "FROM SYSTEM_RANGE(1, 20000)");
+        jdbcTemplate.update("INSERT INTO comments (text, item_id, author_id, created) "
+                + "SELECT 'comment', 1 + MOD(X, 1000), 1 + MOD(X, 200), CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 3000)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void bookerPageReadsBookingsByBooker() {
+        String plan = explain(() -> bookingRepository.findPageByBookerId(1L, FAR_FUTURE, Long.MAX_VALUE, PAGE));
+        assertAccess(plan, "BOOKINGS", "FK_BOOKINGS_TO_USERS", "BOOKER_ID =");
+    }
+
+    @Test
+    void bookerPageByStatusUsesBookerStatusIndex() {
+        String plan = explain(() -> bookingRepository.findPageByBookerIdAndStatus(1L, FAR_FUTURE, Long.MAX_VALUE,
+                BookingStatus.WAITING, PAGE));
+        assertAccess(plan, "BOOKINGS", "IX_BOOKINGS_BOOKER_STATUS_START", "BOOKER_ID =", "STATUS =");
+    }
+
+    @Test
+    void ownerPageReadsItemsByOwnerAndBookingsByItem() {
+        String plan = explain(() -> bookingRepository.findPageByItemOwnerId(1L, FAR_FUTURE, Long.MAX_VALUE, PAGE));
+        assertAccess(plan, "ITEMS", "FK_ITEMS_TO_USERS", "OWNER_ID =");
+        assertAccess(plan, "BOOKINGS", "FK_BOOKINGS_TO_ITEMS", "ITEM_ID =");
+    }
+
+    @Test
+    void lastAndNextBookingsUseItemStatusIndex() {
+        String plan = explain(() -> bookingRepository.findLastAndNextByItemIdIn(List.of(1L, 2L, 3L),
+                BookingStatus.APPROVED, LocalDateTime.of(2021, 1, 1, 0, 0)));
+        assertAccess(plan, "BOOKINGS", "IX_BOOKINGS_ITEM_STATUS_START", "ITEM_ID IN", "STATUS =");
+    }
+
+    @Test
+    void itemsByOwnerUseOwnerIndex() {
+        String plan = explain(() -> itemRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(1L, 0L, PAGE));
+        assertAccess(plan, "ITEMS", "IX_ITEMS_OWNER", "OWNER_ID =");
+    }
+
+    @Test
+    void recentCommentsReadCommentsByItem() {
+        String plan = explain(() -> commentRepository.findRecentByItemIdIn(List.of(1L, 2L, 3L), 10));
+        assertAccess(plan, "COMMENTS", "FK_COMMENTS_TO_ITEMS", "ITEM_ID IN");
+    }
+
+    @Test
+    void commentPageUsesItemIdIndex() {
+        String plan = explain(() -> commentRepository.findViewsByItemIdAndIdLessThan(1L, Long.MAX_VALUE, PAGE));
+        assertAccess(plan, "COMMENTS", "IX_COMMENTS_ITEM_ID", "ITEM_ID =", "ID <");
+    }
+
+    @Test
+    void itemTagReadsItemAndSummaryByPrimaryKey() {
+        String plan = explain(() -> itemRepository.findVersionById(1L));
+        assertAccess(plan, "ITEMS", PRIMARY_KEY, "ID =");
+        assertAccess(plan, "ITEM_BOOKING_SUMMARIES", PRIMARY_KEY, "ITEM_ID =");
+        assertFalse(plan.contains("COMMENTS"), () -> "Тег вещи читает отзывы:\n" + plan);
+    }
+
+    @Test
+    void answersToRequestsUseRequestIndex() {
+        String plan = explain(() -> itemRepository.findAnswersByRequestIdIn(List.of(1L, 2L, 3L)));
+        assertAccess(plan, "ITEMS", "IX_ITEMS_REQUEST", "REQUEST_ID IN");
+    }
+
+    @Test
+    void ownRequestsUseRequestorIndex() {
+        String plan = explain(() -> itemRequestRepository.findByRequestorIdAndIdLessThanOrderByIdDesc(1L,
+                Long.MAX_VALUE, PAGE));
+        assertAccess(plan, "REQUESTS", "IX_REQUESTS_REQUESTOR", "REQUESTOR_ID =");
+    }
+
+    /**
+     * Выполняет запрос репозитория и возвращает план единственного отправленного им SELECT
+     * с теми же параметрами.
+     */
+    private String explain(Runnable query) {
+        STATEMENTS.clear();
+        query.run();
+        List<CapturedStatement> selects = STATEMENTS.stream()
+                .filter(statement -> statement.sql().stripLeading().regionMatches(true, 0, "select", 0, 6))
+                .toList();
+        assertEquals(1, selects.size(), () -> "Ожидался один запрос: " + selects);
+        CapturedStatement select = selects.get(0);
+        return jdbcTemplate.query("EXPLAIN " + select.sql(), statement -> {
+            for (Map.Entry<Integer, Object> parameter : select.parameters().entrySet()) {
+                statement.setObject(parameter.getKey(), parameter.getValue());
+            }
+        }, resultSet -> resultSet.next() ? resultSet.getString(1) : null);
+    }
+
+    /**
+     * Находит в плане первое обращение к таблице и проверяет индекс и условия, по которым он читается.
+     */
+    private static void assertAccess(String plan, String table, String expectedIndex, String... conditions) {
+        // Имена в плане производной таблицы выводятся без кавычек
+        Matcher access = Pattern.compile("\"?PUBLIC\"?\\.\"?" + table
+                + "\"? \"?\\w+\"?\\s+/\\* PUBLIC\\.([\\w.]+)(?::([^*]*))?\\*/").matcher(plan);
+
+        assertTrue(access.find(), () -> "В плане нет обращения к " + table + ":\n" + plan);
+        String index = access.group(1);
+        String condition = access.group(2) == null ? "" : access.group(2);
+        assertFalse(index.endsWith("tableScan"), () -> table + " читается сканированием:\n" + plan);
+        String indexName = index.replaceFirst("_INDEX_\\w+$", "").replaceFirst("^PRIMARY_KEY_\\w+$", PRIMARY_KEY);
+        assertEquals(expectedIndex, indexName,
+                () -> "Неожиданный индекс для " + table + ":\n" + plan);
+        for (String column : conditions) {
+            assertTrue(condition.contains(column), () -> "Индекс " + index + " не использует " + column + ":\n" + plan);
+        }
+    }
+
+    private record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    /**
+     * Оборачивает пул соединений: каждый выполненный PreparedStatement запоминается вместе с параметрами.
+     */
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        static BeanPostProcessor statementCapture() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CapturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static class CapturingDataSource extends DelegatingDataSource {
+
+        CapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return proxy(Connection.class, connection, (method, args) -> {
+                Object result = invoke(method, connection, args);
+                if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                    return capture(statement, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement capture(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return proxy(PreparedStatement.class, statement, (method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                    STATEMENTS.add(new CapturedStatement(sql, new TreeMap<>(parameters)));
+                }
+                return invoke(method, statement, args);
+            });
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, Handler handler) {
+            InvocationHandler invocation = (proxy, method, args) -> handler.handle(method, args);
+            return (T) Proxy.newProxyInstance(QueryPlanTests.class.getClassLoader(), new Class<?>[]{type}, invocation);
+        }
+
+        @FunctionalInterface
+        private interface Handler {
+            Object handle(Method method, Object[] args) throws Throwable;
+        }
+    }
+}
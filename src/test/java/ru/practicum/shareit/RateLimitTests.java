@@ -0,0 +1,86 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.pattern.PathPatternParser;
+import ru.practicum.shareit.ratelimit.RateLimitFilter;
+import ru.practicum.shareit.ratelimit.RateLimitRule;
+import ru.practicum.shareit.ratelimit.TokenBucket;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitTests {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void bucketAllowsBurstThenRefills() {
+        TokenBucket bucket = new TokenBucket(3, SECOND, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        assertEquals(SECOND, bucket.tryAcquire(0));
+        assertEquals(SECOND / 2, bucket.tryAcquire(SECOND / 2));
+        assertEquals(0, bucket.tryAcquire(SECOND));
+        assertTrue(bucket.tryAcquire(SECOND) > 0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(10 * SECOND));
+        }
+    }
+
+    @Test
+    void filterRejectsUserOverLimitBeforeHandler() throws Exception {
+        RateLimitRule rule = new RateLimitRule("POST", PathPatternParser.defaultInstance.parse("/items/{itemId}/comment"),
+                2, Duration.ofHours(1));
+        RateLimitFilter filter = new RateLimitFilter(List.of(rule), 10, 100, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 2; i++) {
+            assertNotNull(call(filter, "POST", "/items/1/comment", "1").getRequest());
+        }
+        MockFilterChain rejectedChain = new MockFilterChain();
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/items/2/comment", "1"), rejected, rejectedChain);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1800", rejected.getHeader("Retry-After"));
+        assertNull(rejectedChain.getRequest());
+
+        for (String sameUser : List.of("01", "+1", " 1 ")) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("POST", "/items/2/comment", sameUser), response, new MockFilterChain());
+            assertEquals(429, response.getStatus());
+        }
+        MockFilterChain invalidChain = new MockFilterChain();
+        MockHttpServletResponse invalid = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/items/2/comment", "one"), invalid, invalidChain);
+        assertEquals(400, invalid.getStatus());
+        assertNull(invalidChain.getRequest());
+
+        assertNotNull(call(filter, "POST", "/items/1/comment", "2").getRequest());
+        assertNotNull(call(filter, "GET", "/items/1/comment", "1").getRequest());
+        assertNotNull(call(filter, "POST", "/items/1", "1").getRequest());
+    }
+
+    private static MockFilterChain call(RateLimitFilter filter, String method, String uri, String userId)
+            throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, uri, userId), response, chain);
+        assertEquals(200, response.getStatus());
+        return chain;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("X-Sharer-User-Id", userId);
+        return request;
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.datasource.ReadYourWritesTracker;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Основная база и реплика — две встроенные H2. Реплика не получает изменений основной базы,
+ * поэтому по содержимому ответа видно, откуда он прочитан. Первая реплика в списке недоступна.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replicas.enabled=true",
+        "shareit.datasource.replicas.urls=jdbc:h2:mem:routing-missing;IFEXISTS=TRUE,"
+                + ReplicaRoutingTests.REPLICA_URL,
+        "shareit.datasource.replicas.max-lag=1h"
+})
+class ReplicaRoutingTests {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(
+            new DriverManagerDataSource(REPLICA_URL, "shareit", "shareit"));
+
+    static {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "shareit", "shareit")
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+    }
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    @Autowired
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @AfterEach
+    void clearCurrentUser() {
+        readYourWritesTracker.clearCurrentUser();
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromHealthyReplica() {
+        REPLICA.update("INSERT INTO users (name, email) VALUES ('replica', 'replica-only@mail.ru')");
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(emails(userService.getUsers(null, 500).getUsers()).contains("replica-only@mail.ru"));
+        }
+        assertEquals(0, countOnPrimary("replica-only@mail.ru"));
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        userService.createUser(new UserDto(null, "writer", "writer@mail.ru"));
+
+        assertEquals(1, countOnPrimary("writer@mail.ru"));
+        assertFalse(emails(userService.getUsers(null, 500).getUsers()).contains("writer@mail.ru"));
+    }
+
+    @Test
+    void writerReadsOwnWritesFromPrimary() {
+        readYourWritesTracker.setCurrentUser(777L);
+        userService.createUser(new UserDto(null, "own", "own-write@mail.ru"));
+        assertTrue(emails(userService.getUsers(null, 500).getUsers()).contains("own-write@mail.ru"));
+
+        readYourWritesTracker.setCurrentUser(778L);
+        assertFalse(emails(userService.getUsers(null, 500).getUsers()).contains("own-write@mail.ru"));
+    }
+
+    @Test
+    void profileWrittenWithoutHeaderIsReadFromPrimary() {
+        UserDto created = userService.createUser(new UserDto(null, "profile", "profile-write@mail.ru"));
+
+        readYourWritesTracker.setCurrentUser(created.getId());
+        assertEquals("profile-write@mail.ru", userService.getUserById(created.getId()).getEmail());
+    }
+
+    @Test
+    void asyncExportRunsAsRequestUser() throws Exception {
+        readYourWritesTracker.setCurrentUser(779L);
+        userService.createUser(new UserDto(null, "export", "export-write@mail.ru"));
+
+        List<String> exported = applicationTaskExecutor.submit(() -> {
+            List<UserDto> users = new ArrayList<>();
+            userService.exportUsers(users::add);
+            return emails(users);
+        }).get();
+        assertTrue(exported.contains("export-write@mail.ru"));
+    }
+
+    private int countOnPrimary(String email) {
+        return new JdbcTemplate(primaryDataSource)
+                .queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email);
+    }
+
+    private static List<String> emails(List<UserDto> users) {
+        return users.stream()
+                .map(UserDto::getEmail)
+                .toList();
+    }
+}
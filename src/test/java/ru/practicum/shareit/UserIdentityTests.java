@@ -0,0 +1,34 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.validator.UserIdentityValidator;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверка, начавшаяся до удаления пользователя, не оставляет его id в кэше.
+ */
+class UserIdentityTests {
+
+    @Test
+    void checkRacingDeleteDoesNotCacheUser() {
+        UserRepository userRepository = mock(UserRepository.class);
+        UserIdentityValidator validator = new UserIdentityValidator(userRepository, 100, Duration.ofMinutes(1));
+        when(userRepository.existsById(1L))
+                .thenAnswer(invocation -> {
+                    validator.invalidate(1L);
+                    return true;
+                })
+                .thenReturn(false);
+
+        validator.validate(1L, "Пользователь не найден");
+
+        assertThrows(UserNotFoundException.class, () -> validator.validate(1L, "Пользователь не найден"));
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPage;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Постраничный список и выгрузка должны отдавать одних и тех же пользователей в порядке id.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class UserListingTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void pagesAndExportReturnSameUsersInIdOrder() {
+        for (int i = 0; i < 5; i++) {
+            userService.createUser(new UserDto(null, "user", UUID.randomUUID() + "@mail.ru"));
+        }
+
+        List<Long> pagedIds = new ArrayList<>();
+        Long cursor = null;
+        do {
+            UserPage page = userService.getUsers(cursor, 2);
+            assertTrue(page.getUsers().size() <= 2);
+            page.getUsers().forEach(user -> pagedIds.add(user.getId()));
+            cursor = page.getNextCursor() == null ? null : Long.valueOf(page.getNextCursor());
+        } while (cursor != null);
+
+        List<Long> exportedIds = new ArrayList<>();
+        userService.exportUsers(user -> exportedIds.add(user.getId()));
+
+        assertTrue(pagedIds.size() >= 5);
+        assertEquals(pagedIds, exportedIds);
+        assertEquals(pagedIds.stream().sorted().toList(), pagedIds);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.EmailConflictException;
+import ru.practicum.shareit.user.dto.UserBatchResultDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class UserRegistrationTests {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void takenEmailIsReportedAsConflict() {
+        String email = randomEmail();
+        UserDto user = userService.createUser(new UserDto(null, "user", email));
+        UserDto other = userService.createUser(new UserDto(null, "other", randomEmail()));
+
+        assertThrows(EmailConflictException.class, () -> userService.createUser(new UserDto(null, "copy", email)));
+        assertThrows(EmailConflictException.class,
+                () -> userService.updateUser(other.getId(), new UserDto(null, null, email)));
+        assertEquals(email, userService.getUserById(user.getId()).getEmail());
+        assertEquals(other.getEmail(), userService.getUserById(other.getId()).getEmail());
+    }
+
+    @Test
+    void batchReportsResultPerUser() {
+        String taken = userService.createUser(new UserDto(null, "user", randomEmail())).getEmail();
+        String first = randomEmail();
+        String second = randomEmail();
+
+        List<UserBatchResultDto> results = userService.createUsers(Arrays.asList(
+                new UserDto(null, "first", first),
+                new UserDto(null, "taken", taken),
+                new UserDto(null, "repeated", " " + first),
+                new UserDto(null, "invalid", "not-an-email"),
+                new UserDto(null, " ", randomEmail()),
+                null,
+                new UserDto(null, "second", second)));
+
+        assertEquals(7, results.size());
+        assertEquals(first, results.get(0).getUser().getEmail());
+        assertEquals(second, results.get(6).getUser().getEmail());
+        for (UserBatchResultDto result : results.subList(1, 6)) {
+            assertNull(result.getUser());
+            assertNotNull(result.getError());
+        }
+        assertTrue(userRepository.existsById(results.get(0).getUser().getId()));
+        assertEquals(2, userRepository.findEmailsByEmailIn(List.of(first, second)).size());
+    }
+
+    private static String randomEmail() {
+        return UUID.randomUUID() + "@mail.ru";
+    }
+}